@@ -5,6 +5,7 @@ import android.graphics.PointF;
 import android.graphics.RectF;
 
 import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.render.DirtyRegion;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -26,6 +27,11 @@ public class BackgroundNode {
     private PointF viewportOrigin;
     public int offsetX = 0;
     public int offsetY = 0;
+    private int maxVisibleLayers = -1;
+    // translation and layer count of the last frame for the dirty-rectangle mode
+    private float drawnXt = 0, drawnYt = 0;
+    private int drawnLayerCount = -1;
+    private boolean damageInvalidated = true;
 
     private final List<BackgroundLayer> backgrounds = new ArrayList<>();
 
@@ -78,7 +84,8 @@ public class BackgroundNode {
             canvas.translate(xt, yt);
         }
 
-        for (int i = 0, n = backgrounds.size(); i < n; i++) {
+        int n = getVisibleLayerCount();
+        for (int i = 0; i < n; i++) {
             backgrounds.get(i).setViewportOrigin(viewportOrigin);
             backgrounds.get(i).setReferencePoint(referencePoint);
             backgrounds.get(i).draw(canvas, 0);
@@ -86,6 +93,43 @@ public class BackgroundNode {
     }
 
 
+    private int getVisibleLayerCount() {
+        int n = backgrounds.size();
+        if (maxVisibleLayers >= 0 && maxVisibleLayers < n) {
+            n = maxVisibleLayers;
+        }
+        return n;
+    }
+
+    /**
+     * Report the damaged areas for the dirty-rectangle mode. The background layers fill the whole
+     * surface, so the whole surface is damaged if the world is scrolled, the number of visible layers
+     * changed or {@link BackgroundNode#invalidate()} was called.
+     *
+     * @param region      the region to add the damaged areas to
+     * @param scrollWorld true, if the canvas is translated by the viewport
+     */
+    public void collectDamage(DirtyRegion region, boolean scrollWorld) {
+        initTranslation();
+        int n = getVisibleLayerCount();
+        boolean moved = xt != drawnXt || yt != drawnYt;
+        if (damageInvalidated || n != drawnLayerCount || (moved && (scrollWorld || n > 0))) {
+            region.invalidateAll();
+        }
+        drawnXt = xt;
+        drawnYt = yt;
+        drawnLayerCount = n;
+        damageInvalidated = false;
+    }
+
+    /**
+     * Repaint the whole background in the next frame of the dirty-rectangle mode, e.g. if the
+     * content of a layer changed.
+     */
+    public void invalidate() {
+        damageInvalidated = true;
+    }
+
     private void initTranslation() {
         xt = width / 2 + offsetX - referenceRect.width() / 2 - referencePoint.x;
         yt = height / 2 + offsetY - referenceRect.height() / 2 - referencePoint.y;
@@ -133,6 +177,19 @@ public class BackgroundNode {
         return backgrounds.get(position);
     }
 
+    public int getMaxVisibleLayers() {
+        return maxVisibleLayers;
+    }
+
+    /**
+     * Limit the number of drawn layers. The layers that were added last are skipped.
+     *
+     * @param maxVisibleLayers maximum number of drawn layers, -1 to draw all layers
+     */
+    public void setMaxVisibleLayers(int maxVisibleLayers) {
+        this.maxVisibleLayers = maxVisibleLayers;
+    }
+
     public PointF getReferencePoint() {
         return referencePoint;
     }
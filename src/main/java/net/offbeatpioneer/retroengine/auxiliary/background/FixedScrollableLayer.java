@@ -10,6 +10,7 @@ import net.offbeatpioneer.retroengine.core.RetroEngine;
 import net.offbeatpioneer.retroengine.core.animation.AnimationSuite;
 import net.offbeatpioneer.retroengine.core.sprites.AbstractSprite;
 import net.offbeatpioneer.retroengine.core.sprites.IFrameUpdate;
+import net.offbeatpioneer.retroengine.core.texture.TextureHandle;
 
 import static net.offbeatpioneer.retroengine.core.util.BitmapHelper.scaleToFit;
 
@@ -23,6 +24,7 @@ import static net.offbeatpioneer.retroengine.core.util.BitmapHelper.scaleToFit;
 public class FixedScrollableLayer implements BackgroundLayer {
     private Bitmap background;
     private Bitmap backgroundBackUp;
+    private TextureHandle handle;
     private Paint paint = new Paint();
 
     // Abmessungen einer Kachel für das Layer
@@ -73,6 +75,18 @@ public class FixedScrollableLayer implements BackgroundLayer {
         background = scaleToFit(backgroundBackUp, scaleWidth, scaleHeight);
     }
 
+    /**
+     * Constructor for a shared texture
+     *
+     * @param handle       handle of the texture, it is released by {@link FixedScrollableLayer#recycle()}
+     * @param sectionWidth width of the visible section
+     * @param factor       factor of the velocity in relation to the reference point
+     */
+    public FixedScrollableLayer(TextureHandle handle, int sectionWidth, float factor) {
+        this(handle.getBitmap(), sectionWidth, factor);
+        this.handle = handle;
+    }
+
     public int updateFrame() {
 //        sprite.setFrameNr(sprite.getFrameNr() + 1);
         if (frameNr >= frameCnt) {
@@ -117,8 +131,9 @@ public class FixedScrollableLayer implements BackgroundLayer {
 
     @Override
     public void recycle() {
-        if (!background.isRecycled()) background.recycle();
-        if (!backgroundBackUp.isRecycled()) backgroundBackUp.recycle();
+        if (background != backgroundBackUp && !background.isRecycled()) background.recycle();
+        if (handle != null) handle.release();
+        else if (!backgroundBackUp.isRecycled()) backgroundBackUp.recycle();
     }
 
     public Bitmap getBackground() {
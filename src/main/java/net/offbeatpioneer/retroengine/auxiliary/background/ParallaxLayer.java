@@ -7,17 +7,22 @@ import android.graphics.PointF;
 
 import net.offbeatpioneer.retroengine.core.animation.AnimationSuite;
 import net.offbeatpioneer.retroengine.core.sprites.AbstractSprite;
+import net.offbeatpioneer.retroengine.core.texture.TextureHandle;
 
 /**
  * Parallax background layer to use within a state.
  * <p>
  * A factor can be defined to change the velocity of the translation in relation
  * to a reference sprite.
+ * <p>
+ * If the layer is created with a {@link TextureHandle} of the {@link net.offbeatpioneer.retroengine.core.texture.TextureRegistry}
+ * the texture can be shared with other states, {@link ParallaxLayer#recycle()} only releases the handle.
  *
  * @author Dominik Grzelak
  */
 public class ParallaxLayer implements BackgroundLayer {
     private Bitmap background;
+    private TextureHandle handle;
     private Paint paint = new Paint();
 
     // Abmessungen einer Kachel für das Layer
@@ -46,13 +51,26 @@ public class ParallaxLayer implements BackgroundLayer {
         this.factor = factor;
     }
 
+    /**
+     * Constructor for a shared texture
+     *
+     * @param handle handle of the texture, it is released by {@link ParallaxLayer#recycle()}
+     * @param factor factor of the velocity in relation to the reference point
+     */
+    public ParallaxLayer(TextureHandle handle, float factor) {
+        this(handle.getBitmap(), factor);
+        this.handle = handle;
+    }
+
     public PointF getReferencePoint() {
         return referencePoint;
     }
 
     @Override
     public void recycle() {
-        if (!background.isRecycled())
+        if (handle != null)
+            handle.release();
+        else if (!background.isRecycled())
             background.recycle();
     }
 
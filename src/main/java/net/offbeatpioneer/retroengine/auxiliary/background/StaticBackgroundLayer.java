@@ -9,16 +9,21 @@ import android.graphics.PointF;
 import net.offbeatpioneer.retroengine.core.RetroEngine;
 import net.offbeatpioneer.retroengine.core.animation.AnimationSuite;
 import net.offbeatpioneer.retroengine.core.sprites.AbstractSprite;
+import net.offbeatpioneer.retroengine.core.texture.TextureHandle;
 
 /**
  * A static background layer to use within a state.
  * It will fill the whole drawing surface with a bitmap.
+ * <p>
+ * If the layer is created with a {@link TextureHandle} of the {@link net.offbeatpioneer.retroengine.core.texture.TextureRegistry}
+ * the texture can be shared with other states, {@link StaticBackgroundLayer#recycle()} only releases the handle.
  *
  * @author Domini Grzelak
  */
 public class StaticBackgroundLayer implements BackgroundLayer {
     private Bitmap background;
     private Bitmap backgroundResized;
+    private TextureHandle handle;
     private Paint paint = new Paint();
 
     // Abmessungen einer Kachel für das Layer
@@ -52,6 +57,21 @@ public class StaticBackgroundLayer implements BackgroundLayer {
             tiledBitmap();
     }
 
+    /**
+     * Constructor for a shared texture.
+     * Bitmap is scaled to fit into the screen
+     *
+     * @param handle handle of the texture, it is released by {@link StaticBackgroundLayer#recycle()}
+     */
+    public StaticBackgroundLayer(TextureHandle handle) {
+        this(handle, true);
+    }
+
+    public StaticBackgroundLayer(TextureHandle handle, boolean scaleToFit) {
+        this(handle.getBitmap(), scaleToFit);
+        this.handle = handle;
+    }
+
     public PointF getReferencePoint() {
         return referencePoint;
     }
@@ -110,9 +130,12 @@ public class StaticBackgroundLayer implements BackgroundLayer {
     }
 
     public void recycle() {
-        if (!backgroundResized.isRecycled())
+        // the scaled bitmap is the original one if no scaling is needed
+        if (backgroundResized != background && !backgroundResized.isRecycled())
             backgroundResized.recycle();
-        if (!background.isRecycled())
+        if (handle != null)
+            handle.release();
+        else if (!background.isRecycled())
             background.recycle();
     }
 
@@ -3,9 +3,15 @@ package net.offbeatpioneer.retroengine.core;
 import android.content.Context;
 import android.content.res.Resources;
 
+import net.offbeatpioneer.retroengine.core.replay.InputRecorder;
+import net.offbeatpioneer.retroengine.core.time.EngineClock;
+import net.offbeatpioneer.retroengine.core.time.NanoClock;
 import net.offbeatpioneer.retroengine.view.RenderThread;
 
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Core class to get access to common resources like canvas size or an application's resources at
@@ -15,6 +21,11 @@ import java.util.concurrent.atomic.AtomicBoolean;
  * <p>
  * The {@link RenderThread} is using the properties to control
  * the main game loop. Values like the framerate can be set here.
+ * The tick values are the defaults for all states which don't define their own tick rate with
+ * {@link net.offbeatpioneer.retroengine.core.states.State#setTicksPerSecond(int)}.
+ * <p>
+ * The time of the engine is provided by an {@link EngineClock}. By default a monotonic
+ * clock based on {@link System#nanoTime()} is used.
  * <p>
  * This class is automatically initialized by the {@link net.offbeatpioneer.retroengine.view.DrawView} class.
  * It will call the {@code init} method to set the height and width of the current drawing surface which
@@ -28,16 +39,85 @@ public class RetroEngine {
     public static int SKIP_TICKS = 1000 / TICKS_PER_SECOND;
     public static int MAX_FRAMESKIP = 15;
 
+    private static final EngineClock defaultClock = new NanoClock();
+    private static volatile EngineClock clock = defaultClock;
+
+    private static volatile boolean antiAlias = true;
+    private static volatile boolean filterBitmap = false;
+    private static volatile InputRecorder inputRecorder = null;
+
     private static AtomicBoolean running = new AtomicBoolean(false);
     private static AtomicBoolean shouldWait = new AtomicBoolean(false);
 
+    // wakes up the paused render thread
+    private static final ReentrantLock pauseLock = new ReentrantLock();
+    private static final Condition wakeUp = pauseLock.newCondition();
+    private static long wakeUpGeneration = 0;
+
     public static int W;
     public static int H;
     public static float DENSITY;
     public static Resources Resources;
 
+    /**
+     * Current time of the engine clock in milliseconds. The value is monotonic but has
+     * no relation to the wall-clock time.
+     *
+     * @return time in milliseconds
+     */
     public static long getTickCount() {
-        return System.currentTimeMillis();
+        return TimeUnit.NANOSECONDS.toMillis(clock.nanoTime());
+    }
+
+    /**
+     * Current time of the engine clock in nanoseconds
+     *
+     * @return time in nanoseconds
+     */
+    public static long getNanoTime() {
+        return clock.nanoTime();
+    }
+
+    /**
+     * Set the clock of the engine. If {@code null} is supplied the default clock
+     * ({@link NanoClock}) is used.
+     *
+     * @param engineClock the new clock
+     */
+    public static void setClock(EngineClock engineClock) {
+        if (engineClock == null) {
+            engineClock = defaultClock;
+        }
+        clock = engineClock;
+    }
+
+    public static EngineClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Called by the game loop before each logic update of the active state. Records the tick
+     * if an {@link InputRecorder} is set.
+     */
+    public static void onTick() {
+        InputRecorder recorder = inputRecorder;
+        if (recorder != null) {
+            recorder.recordTick(clock.nanoTime());
+        }
+    }
+
+    public static InputRecorder getInputRecorder() {
+        return inputRecorder;
+    }
+
+    /**
+     * Set the recorder for the ticks and input events of a session. {@code null} stops the recording,
+     * the recorder must be closed by the caller.
+     *
+     * @param recorder the recorder or {@code null}
+     */
+    public static void setInputRecorder(InputRecorder recorder) {
+        inputRecorder = recorder;
     }
 
     public static void init(Context context) {
@@ -45,12 +125,39 @@ public class RetroEngine {
         Resources = context.getResources();
     }
 
+    /**
+     * Anti-aliasing flag used by the sprites when their texture is drawn
+     *
+     * @return true, if anti-aliasing is enabled
+     */
+    public static boolean isAntiAlias() {
+        return antiAlias;
+    }
+
+    public static void setAntiAlias(boolean value) {
+        antiAlias = value;
+    }
+
+    /**
+     * Bitmap filter flag used by the sprites when their texture is drawn
+     *
+     * @return true, if bitmap filtering is enabled
+     */
+    public static boolean isFilterBitmap() {
+        return filterBitmap;
+    }
+
+    public static void setFilterBitmap(boolean value) {
+        filterBitmap = value;
+    }
+
     public static boolean isRunning() {
         return running.get();
     }
 
     public static void changeRunningState(boolean value) {
         running.set(value);
+        wakeUpRenderThread();
     }
 
     public static boolean isShouldWait() {
@@ -59,9 +166,72 @@ public class RetroEngine {
 
     public static void resumeRenderThread() {
         shouldWait.set(false);
+        wakeUpRenderThread();
     }
 
     public static void pauseRenderThread() {
         shouldWait.set(true);
     }
+
+    /**
+     * Wake up the paused render thread so that it checks its state again, e.g. after a
+     * state change is completed.
+     */
+    public static void wakeUpRenderThread() {
+        pauseLock.lock();
+        try {
+            wakeUpGeneration++;
+            wakeUp.signalAll();
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Get the current wake up generation. Must be read before the conditions for continuing
+     * are checked and then passed to {@link RetroEngine#awaitWakeUp(long, long)}, so that no
+     * wake up signal in between is lost.
+     *
+     * @return the current generation
+     */
+    public static long getWakeUpGeneration() {
+        pauseLock.lock();
+        try {
+            return wakeUpGeneration;
+        } finally {
+            pauseLock.unlock();
+        }
+    }
+
+    /**
+     * Block the calling thread until {@link RetroEngine#wakeUpRenderThread()} is called after
+     * the given generation was read, or the timeout elapsed.
+     *
+     * @param generation    value of {@link RetroEngine#getWakeUpGeneration()}
+     * @param timeoutMillis maximum waiting time in milliseconds
+     */
+    public static void awaitWakeUp(long generation, long timeoutMillis) {
+        awaitWakeUpNanos(generation, TimeUnit.MILLISECONDS.toNanos(timeoutMillis));
+    }
+
+    /**
+     * Block the calling thread until {@link RetroEngine#wakeUpRenderThread()} is called after
+     * the given generation was read, or the timeout elapsed.
+     *
+     * @param generation   value of {@link RetroEngine#getWakeUpGeneration()}
+     * @param timeoutNanos maximum waiting time in nanoseconds
+     */
+    public static void awaitWakeUpNanos(long generation, long timeoutNanos) {
+        long remaining = timeoutNanos;
+        pauseLock.lock();
+        try {
+            while (wakeUpGeneration == generation && remaining > 0) {
+                remaining = wakeUp.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pauseLock.unlock();
+        }
+    }
 }
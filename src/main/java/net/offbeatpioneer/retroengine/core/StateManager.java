@@ -1,16 +1,33 @@
 package net.offbeatpioneer.retroengine.core;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLong;
 
 import android.app.Activity;
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Picture;
 import android.os.Handler;
+import android.util.Log;
 
 import net.offbeatpioneer.retroengine.core.states.State;
+import net.offbeatpioneer.retroengine.core.transition.StateTransition;
+import net.offbeatpioneer.retroengine.core.transition.TransitionCompositor;
 
 /**
  * {@link StateManager} is a manger for all {@link State} objects
@@ -21,20 +38,53 @@ import net.offbeatpioneer.retroengine.core.states.State;
  * <p>
  * Each {@link State} instance keeps a reference to the {@link StateManager} to get access
  * to its methods and with that also to the calling {@link Activity}.
+ * <p>
+ * The active state is kept in a volatile reference and the states are indexed by class and name,
+ * so the active state and the lookup of a state can be accessed without locking, e.g. by the input
+ * dispatching on the UI thread while a state change is in progress.
+ * <p>
+ * A state can be initialised in the background while the current state is still rendered
+ * (see {@link StateManager#preloadGameState(Class)}). The state change itself only flips the
+ * reference of the active state then.
+ * <p>
+ * States can also be stacked: {@link StateManager#pushGameState(Class, boolean, int)} covers the active
+ * state with another one (e.g. a pause menu) without cleaning it up, {@link StateManager#popGameState()}
+ * returns to it instantly.
+ * <p>
+ * A state change can be animated with a {@link StateTransition}
+ * (see {@link StateManager#changeGameState(Class, StateTransition)}).
  *
  * @author Dominik Grzelak
  */
 public class StateManager {
+    private static final String TAG_LOG = "StateManager";
 
-    private final ReentrantLock lock = new ReentrantLock();
     private AtomicBoolean changingState = new AtomicBoolean(false);
+    private AtomicBoolean stateChangeReady = new AtomicBoolean(false);
+    private volatile long stateChangeStart = 0;
+    // incremented by every state change, a deferred change is dropped if another one followed
+    private final AtomicLong stateChangeRequests = new AtomicLong();
 
     private Activity mParentActivity = null;
 
     private final List<State> states = new ArrayList<>();
+    private final Map<Class<?>, State> statesByClass = new ConcurrentHashMap<>();
+    private final Map<String, State> statesByName = new ConcurrentHashMap<>();
 
     private static StateManager instance = null;
-    private State currentActiveState = null;
+    private volatile State currentActiveState = null;
+    private final Map<Class<?>, Future<State>> preloads = new ConcurrentHashMap<>();
+    private ExecutorService preloadExecutor;
+    // old states which are cleaned up in the background after the render thread switched
+    private final ConcurrentLinkedQueue<State> pendingCleanUps = new ConcurrentLinkedQueue<>();
+    // cleanups which are submitted to the preload executor, by state
+    private final ConcurrentMap<State, Future<?>> runningCleanUps = new ConcurrentHashMap<>();
+    // suspended states below the active state, the last one is the top of the stack
+    private volatile SuspendedState[] stateStack = new SuspendedState[0];
+    private final TransitionCompositor transitionCompositor = new TransitionCompositor();
+    private final Paint capturePaint = new Paint();
+    // outgoing states of a transition which are captured by the render thread
+    private PendingCapture pendingCapture = null;
 
     private Handler handler;
 
@@ -48,19 +98,24 @@ public class StateManager {
     }
 
     /**
-     * Get the currently active state
+     * Get the currently active state. The state is read from a volatile reference without locking.
+     * <p>
+     * Only if no state was activated by a state change yet, the list of states is searched for
+     * an active state. If there is none, the first state is returned.
      *
-     * @return active state or null, if no state is active
+     * @return active state or null, if no state is added
      */
-    public synchronized State getActiveGameState() {
-        if (currentActiveState != null) return currentActiveState;
+    public State getActiveGameState() {
+        State active = currentActiveState;
+        if (active != null) return active;
         synchronized (states) {
             for (int i = 0, n = states.size(); i < n; i++) {
-                if (states.get(i).isActive())
+                if (states.get(i).isActive()) {
                     currentActiveState = states.get(i);
-                return states.get(i);
+                    return currentActiveState;
+                }
             }
-            return null;
+            return states.isEmpty() ? null : states.get(0);
         }
     }
 
@@ -74,7 +129,7 @@ public class StateManager {
      * @param paint       the paint
      * @param currentTime the time
      */
-    public synchronized void render(Canvas canvas, Paint paint, long currentTime) {
+    public void render(Canvas canvas, Paint paint, long currentTime) {
         getActiveGameState().render(canvas, paint, currentTime);
     }
 
@@ -93,7 +148,9 @@ public class StateManager {
             else {
                 states.remove(tmp);
                 states.add(state);
+                statesByName.remove(key(tmp.getStateName()));
             }
+            index(state);
         }
     }
 
@@ -131,30 +188,482 @@ public class StateManager {
     }
 
     /**
-     * Begin a state change
+     * Initialise a state on a background thread while the current state keeps rendering. A following
+     * state change to this state ({@link StateManager#changeGameState(Class)}) doesn't call the init
+     * method again.
+     * <p>
+     * The init method of the state must not access views or other objects which may only be used on
+     * the UI thread. The state must be added before.
+     *
+     * @param c the class of the state to preload
+     * @return future which is completed when the state is initialised
+     */
+    public Future<State> preloadGameState(Class<?> c) {
+        final State state = getStateByClass(c);
+        if (state == null) {
+            throw new IllegalArgumentException("State is not added to the StateManager: " + c);
+        }
+        synchronized (preloads) {
+            Future<State> future = preloads.get(c);
+            if (future == null) {
+                future = getPreloadExecutor().submit(new Callable<State>() {
+                    @Override
+                    public State call() throws Exception {
+                        finishCleanUp(state);
+                        state.init();
+                        return state;
+                    }
+                });
+                preloads.put(c, future);
+            }
+            return future;
+        }
+    }
+
+    /**
+     * Check if a state was initialised in the background and is ready for the state change
+     *
+     * @param c the class of the state
+     * @return true, if the preloading is finished
+     */
+    public boolean isPreloaded(Class<?> c) {
+        Future<State> future = preloads.get(c);
+        return future != null && future.isDone();
+    }
+
+    /**
+     * Discard a preloaded state. If it was already initialised its cleanUp method is called.
+     *
+     * @param c the class of the state
+     */
+    public void cancelPreload(Class<?> c) {
+        final Future<State> future = preloads.remove(c);
+        if (future == null) {
+            return;
+        }
+        getPreloadExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.get().cleanUp();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ignored) {
+                }
+            }
+        });
+    }
+
+    private ExecutorService getPreloadExecutor() {
+        synchronized (preloads) {
+            if (preloadExecutor == null) {
+                preloadExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "StatePreloadThread");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            return preloadExecutor;
+        }
+    }
+
+    /**
+     * Defer a state change until the preloading of the state is finished. The preload executor
+     * runs its tasks in order, so the change is executed right after the preloading.
+     *
+     * @param c       the class of the state
+     * @param request number of the state change request
+     * @param change  the state change
+     * @return true, if the state is still preloading and the change was deferred
+     */
+    private boolean deferUntilPreloaded(Class<?> c, final long request, final Runnable change) {
+        Future<State> future = preloads.get(c);
+        if (future == null || future.isDone()) {
+            return false;
+        }
+        getPreloadExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                if (stateChangeRequests.get() != request) {
+                    return;
+                }
+                try {
+                    change.run();
+                } catch (RuntimeException e) {
+                    Log.e(TAG_LOG, "Deferred state change failed", e);
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Get the result of a finished preloading
+     *
+     * @param c the class of the state
+     * @return the preloaded state or {@code null} if it wasn't preloaded or the preloading failed
+     */
+    private State takePreload(Class<?> c) {
+        Future<State> future = preloads.remove(c);
+        if (future == null) {
+            return null;
+        }
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.w(TAG_LOG, "Preloading of the state failed, it is initialised again", e.getCause());
+        }
+        return null;
+    }
+
+    /**
+     * Begin a state change. The render thread is paused until the new state is initialised and
+     * woken up afterwards.
+     * <p>
+     * If the state was preloaded ({@link StateManager#preloadGameState(Class)}) the current state keeps
+     * running until the preloading is finished, the method returns immediately and the change is done by the
+     * preload thread afterwards. A state change that is requested in the meantime supersedes it. Then only
+     * the active state is exchanged and the old state is cleaned up in the background after the render
+     * thread switched to the new state.
      *
      * @param c the class of the state to switch
      */
     public void changeGameState(Class<?> c) {
+        changeGameState(c, null);
+    }
+
+    /**
+     * Begin a state change which is animated with a transition.
+     * <p>
+     * The outgoing state is rendered once more into a snapshot by the render thread while it is paused,
+     * it is cleaned up afterwards and its logic isn't updated anymore. During the transition only the incoming state runs, the snapshot is composited
+     * over its live render by the game loop. Combined with {@link StateManager#preloadGameState(Class)}
+     * the incoming state is shown without a pause.
+     *
+     * @param c          the class of the state to switch
+     * @param transition the transition or {@code null} to switch without animation
+     * @see StateManager#changeGameState(Class)
+     */
+    public void changeGameState(final Class<?> c, final StateTransition transition) {
+        long request = stateChangeRequests.incrementAndGet();
+        boolean deferred = deferUntilPreloaded(c, request, new Runnable() {
+            @Override
+            public void run() {
+                switchGameState(c, transition);
+            }
+        });
+        if (!deferred) {
+            switchGameState(c, transition);
+        }
+    }
+
+    private void switchGameState(Class<?> c, StateTransition transition) {
+        State preloaded = takePreload(c);
         synchronized (states) {
-            changingState.set(true);
-            RetroEngine.pauseRenderThread(); // pause the render thread
-            for (int i = 0, n = states.size(); i < n; i++) {
-                if (states.get(i).getClass().equals(c)) {
-                    State oldState = getActiveGameState();
-                    if (this.currentActiveState != null && oldState != null) {
-                        oldState.setActive(false);
+            beginStateChange();
+            State next = getStateByClass(c);
+            if (next != null) {
+                // the new state replaces the whole stack
+                SuspendedState[] stack = stateStack;
+                State outgoing = currentActiveState;
+                // the outgoing states are captured later by the render thread, they must not be cleaned up before
+                boolean capture = transition != null && outgoing != null && outgoing != next;
+                pendingCapture = capture ? new PendingCapture(transition, outgoing, stack) : null;
+                boolean deferCleanUp = next == preloaded || capture;
+                stateStack = new SuspendedState[0];
+                for (int i = stack.length - 1; i >= 0; i--) {
+                    State suspended = stack[i].getState();
+                    if (suspended != next) {
+                        cleanUpOldState(suspended, deferCleanUp);
+                    }
+                }
+                State oldState = getActiveGameState();
+                if (this.currentActiveState != null && oldState != null) {
+                    oldState.setActive(false);
+                    if (!deferCleanUp) {
                         oldState.cleanUp();
+                    } else if (oldState != next) {
+                        pendingCleanUps.add(oldState);
                     }
-                    states.get(i).setActive(true);
-                    currentActiveState = states.get(i);
-                    states.get(i).init();
-                    break;
                 }
+                next.setActive(true);
+                currentActiveState = next;
+                if (next != preloaded) {
+                    finishCleanUp(next);
+                    next.init();
+                }
+            }
+            stateChangeReady.set(true);
+        }
+        RetroEngine.wakeUpRenderThread();
+    }
+
+    /**
+     * Cover the active state with another state. The active state isn't cleaned up, it stays initialised
+     * on the state stack and is frozen. It is rendered underneath the new state.
+     *
+     * @param c the class of the state to push
+     */
+    public void pushGameState(Class<?> c) {
+        pushGameState(c, true, 0);
+    }
+
+    /**
+     * Cover the active state with another state, e.g. a pause menu or an inventory. The active state
+     * isn't cleaned up, it stays initialised on the state stack until the new state is removed with
+     * {@link StateManager#popGameState()}.
+     * <p>
+     * While covered, the logic of the state is frozen or updated with a reduced tick rate. If it is
+     * rendered underneath, the new state should only draw over parts of the surface.
+     * <p>
+     * The new state is initialised, unless it was preloaded ({@link StateManager#preloadGameState(Class)}).
+     * If it is still preloading, the state is pushed when the preloading is finished like a deferred
+     * {@link StateManager#changeGameState(Class)}.
+     *
+     * @param c                the class of the state to push
+     * @param renderUnderneath true, to render the covered state underneath the new state
+     * @param ticksPerSecond   tick rate of the covered state, 0 to freeze it
+     */
+    public void pushGameState(final Class<?> c, final boolean renderUnderneath, final int ticksPerSecond) {
+        State next = getStateByClass(c);
+        if (next == null) {
+            throw new IllegalArgumentException("State is not added to the StateManager: " + c);
+        }
+        if (next == currentActiveState || isOnStack(next)) {
+            throw new IllegalStateException("State is already active or on the state stack: " + c);
+        }
+        long request = stateChangeRequests.incrementAndGet();
+        boolean deferred = deferUntilPreloaded(c, request, new Runnable() {
+            @Override
+            public void run() {
+                pushState(c, renderUnderneath, ticksPerSecond);
+            }
+        });
+        if (!deferred) {
+            pushState(c, renderUnderneath, ticksPerSecond);
+        }
+    }
+
+    private void pushState(Class<?> c, boolean renderUnderneath, int ticksPerSecond) {
+        State preloaded = takePreload(c);
+        synchronized (states) {
+            State next = getStateByClass(c);
+            State oldState = currentActiveState;
+            if (next == oldState || isOnStack(next)) {
+                throw new IllegalStateException("State is already active or on the state stack: " + c);
+            }
+            beginStateChange();
+            if (oldState != null) {
+                oldState.setActive(false);
+                SuspendedState[] stack = Arrays.copyOf(stateStack, stateStack.length + 1);
+                stack[stack.length - 1] = new SuspendedState(oldState, renderUnderneath, ticksPerSecond);
+                stateStack = stack;
+            }
+            next.setActive(true);
+            currentActiveState = next;
+            if (next != preloaded) {
+                finishCleanUp(next);
+                next.init();
+            }
+            stateChangeReady.set(true);
+        }
+        RetroEngine.wakeUpRenderThread();
+    }
+
+    /**
+     * Remove the active state and return to the state below it on the state stack. The removed state
+     * is cleaned up in the background, the returning state isn't initialised again.
+     * <p>
+     * If the removed state is pushed or preloaded again before its cleanup has run, the cleanup is
+     * finished before the state is initialised again.
+     *
+     * @return the state which is active again
+     */
+    public State popGameState() {
+        State next;
+        synchronized (states) {
+            SuspendedState[] stack = stateStack;
+            if (stack.length == 0) {
+                throw new IllegalStateException("The state stack is empty");
+            }
+            stateChangeRequests.incrementAndGet();
+            beginStateChange();
+            next = stack[stack.length - 1].getState();
+            stateStack = Arrays.copyOf(stack, stack.length - 1);
+            State oldState = currentActiveState;
+            if (oldState != null) {
+                oldState.setActive(false);
+                pendingCleanUps.add(oldState);
+            }
+            next.setActive(true);
+            currentActiveState = next;
+            stateChangeReady.set(true);
+        }
+        RetroEngine.wakeUpRenderThread();
+        return next;
+    }
+
+    /**
+     * Capture the outgoing states of a state change with a transition into the snapshot of the
+     * {@link TransitionCompositor} and start the transition. Called by the render thread while it is
+     * paused and before {@link StateManager#endStateChange()}, so no other thread draws the outgoing
+     * states and they aren't cleaned up yet.
+     *
+     * @param lastFrame the last frame that was shown, or {@code null} to render the outgoing states
+     */
+    public void captureTransition(Picture lastFrame) {
+        PendingCapture capture;
+        synchronized (states) {
+            capture = pendingCapture;
+            pendingCapture = null;
+        }
+        if (capture == null || RetroEngine.W <= 0 || RetroEngine.H <= 0) {
+            return;
+        }
+        Canvas canvas = transitionCompositor.beginCapture(RetroEngine.W, RetroEngine.H);
+        int saveCount = canvas.save();
+        if (lastFrame != null) {
+            canvas.drawPicture(lastFrame);
+        } else {
+            State outgoing = capture.outgoing;
+            renderSuspendedStates(capture.stack, canvas, capturePaint, RetroEngine.getTickCount());
+            outgoing.render(canvas, capturePaint, RetroEngine.getTickCount(), outgoing.getInterpolation());
+        }
+        canvas.restoreToCount(saveCount);
+        transitionCompositor.endCapture(capture.transition);
+    }
+
+    /**
+     * Compositor of the state transitions, used by the game loop
+     *
+     * @return the transition compositor
+     */
+    public TransitionCompositor getTransitionCompositor() {
+        return transitionCompositor;
+    }
+
+    private boolean isOnStack(State state) {
+        SuspendedState[] stack = stateStack;
+        for (int i = 0; i < stack.length; i++) {
+            if (stack[i].getState() == state) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void cleanUpOldState(State state, boolean deferred) {
+        state.setActive(false);
+        if (deferred) {
+            pendingCleanUps.add(state);
+        } else {
+            state.cleanUp();
+        }
+    }
+
+    /**
+     * Make sure that a state isn't cleaned up after it is initialised again. A cleanup which is still
+     * waiting for the end of the state change or in the queue of the preload executor is done
+     * immediately on the calling thread. A cleanup which is already running is waited for.
+     *
+     * @param state the state that is initialised next
+     */
+    private void finishCleanUp(State state) {
+        boolean pending;
+        Future<?> running;
+        synchronized (pendingCleanUps) {
+            pending = pendingCleanUps.remove(state);
+            running = pending ? null : runningCleanUps.remove(state);
+        }
+        if (pending || (running != null && running.cancel(false))) {
+            state.cleanUp();
+        } else if (running != null) {
+            try {
+                running.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Log.w(TAG_LOG, "Cleanup of the state failed", e.getCause());
             }
         }
     }
 
+    private void beginStateChange() {
+        stateChangeStart = System.nanoTime();
+        stateChangeReady.set(false);
+        changingState.set(true);
+        RetroEngine.pauseRenderThread(); // pause the render thread
+    }
+
+    /**
+     * Number of suspended states below the active state
+     *
+     * @return size of the state stack
+     */
+    public int getStackSize() {
+        return stateStack.length;
+    }
+
+    /**
+     * Get a suspended state of the state stack
+     *
+     * @param i index, 0 is the bottom of the stack
+     * @return the suspended state
+     */
+    public SuspendedState getSuspendedState(int i) {
+        return stateStack[i];
+    }
+
+    /**
+     * Update the throttled states of the state stack. Called by the game loop once per frame.
+     *
+     * @param now current time of the engine in nanoseconds
+     */
+    public void updateSuspendedStates(long now) {
+        SuspendedState[] stack = stateStack;
+        for (int i = 0; i < stack.length; i++) {
+            stack[i].update(now);
+        }
+    }
+
+    /**
+     * Check if a suspended state is rendered underneath the active state
+     *
+     * @return true, if the top of the state stack is visible
+     */
+    public boolean hasVisibleSuspendedStates() {
+        SuspendedState[] stack = stateStack;
+        return stack.length > 0 && stack[stack.length - 1].isRenderUnderneath();
+    }
+
+    /**
+     * Render the visible states of the state stack from bottom to top. Called by the game loop
+     * before the active state is rendered.
+     *
+     * @param canvas      the canvas
+     * @param paint       the paint
+     * @param currentTime current time in milliseconds
+     */
+    public void renderSuspendedStates(Canvas canvas, Paint paint, long currentTime) {
+        renderSuspendedStates(stateStack, canvas, paint, currentTime);
+    }
+
+    private static void renderSuspendedStates(SuspendedState[] stack, Canvas canvas, Paint paint, long currentTime) {
+        // only the states above the first one that covers everything below it are visible
+        int first = stack.length;
+        while (first > 0 && stack[first - 1].isRenderUnderneath()) {
+            first--;
+        }
+        for (int i = first; i < stack.length; i++) {
+            stack[i].render(canvas, paint, currentTime);
+        }
+    }
+
     /**
      * Check if a state change event is occurring
      *
@@ -164,41 +673,136 @@ public class StateManager {
         return changingState.get();
     }
 
+    /**
+     * Check if the state change is completed, that means the new state is initialised and the
+     * render thread can continue
+     *
+     * @return true, if the new state is ready
+     */
+    public boolean isStateChangeReady() {
+        return stateChangeReady.get();
+    }
+
+    /**
+     * Time when the last state change was started
+     *
+     * @return time in nanoseconds ({@link System#nanoTime()})
+     */
+    public long getStateChangeStart() {
+        return stateChangeStart;
+    }
+
     /**
      * Set the changing state flag to {@code false}
      */
     public void endStateChange() {
         changingState.set(false);
+        synchronized (pendingCleanUps) {
+            State state;
+            while ((state = pendingCleanUps.poll()) != null) {
+                final State oldState = state;
+                FutureTask<Void> cleanUp = new FutureTask<Void>(new Runnable() {
+                    @Override
+                    public void run() {
+                        oldState.cleanUp();
+                    }
+                }, null) {
+                    @Override
+                    protected void done() {
+                        runningCleanUps.remove(oldState, this);
+                    }
+                };
+                runningCleanUps.put(oldState, cleanUp);
+                getPreloadExecutor().execute(cleanUp);
+            }
+        }
     }
 
     public void clearStates() {
         synchronized (states) {
             states.clear();
+            stateStack = new SuspendedState[0];
+            pendingCapture = null;
+            statesByClass.clear();
+            statesByName.clear();
         }
     }
 
+    /**
+     * Get a state by its name. The case of the name is ignored.
+     *
+     * @param name name of the state
+     * @return the state or {@code null}
+     */
     public State getStateByName(String name) {
+        if (name == null) {
+            return null;
+        }
+        State state = statesByName.get(key(name));
+        // the name of a state can be changed after it was added
+        if (state != null && name.equalsIgnoreCase(state.getStateName())) {
+            return state;
+        }
         synchronized (states) {
             for (int i = 0, n = states.size(); i < n; i++) {
-                if (states.get(i).getStateName().equalsIgnoreCase(name))
+                if (states.get(i).getStateName().equalsIgnoreCase(name)) {
+                    index(states.get(i));
                     return states.get(i);
+                }
             }
             return null;
         }
     }
 
+    /**
+     * Get a state by its class
+     *
+     * @param name class of the state
+     * @return the state or {@code null}
+     */
     public State getStateByClass(Class name) {
+        if (name == null) {
+            return null;
+        }
+        State state = statesByClass.get(name);
+        if (state != null) {
+            return state;
+        }
+        // states can also be added directly to the list of {@code getGamestates()}
         synchronized (states) {
-            if (name != null) {
-                for (int i = 0, n = states.size(); i < n; i++) {
-                    if (states.get(i).getClass() == name)
-                        return states.get(i);
+            for (int i = 0, n = states.size(); i < n; i++) {
+                if (states.get(i).getClass() == name) {
+                    index(states.get(i));
+                    return states.get(i);
                 }
             }
             return null;
         }
     }
 
+    private void index(State state) {
+        statesByClass.put(state.getClass(), state);
+        if (state.getStateName() != null) {
+            statesByName.put(key(state.getStateName()), state);
+        }
+    }
+
+    private static String key(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.US);
+    }
+
+    private static final class PendingCapture {
+        final StateTransition transition;
+        final State outgoing;
+        final SuspendedState[] stack;
+
+        PendingCapture(StateTransition transition, State outgoing, SuspendedState[] stack) {
+            this.transition = transition;
+            this.outgoing = outgoing;
+            this.stack = stack;
+        }
+    }
+
     public Handler getHandler() {
         return handler;
     }
@@ -215,6 +819,12 @@ public class StateManager {
         this.mParentActivity = mParentActivity;
     }
 
+    /**
+     * List of all states. States should be added with {@link StateManager#addGamestate(State)}
+     * and not directly to this list.
+     *
+     * @return the states
+     */
     public List<State> getGamestates() {
         return states;
     }
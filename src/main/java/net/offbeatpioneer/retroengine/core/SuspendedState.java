@@ -0,0 +1,92 @@
+package net.offbeatpioneer.retroengine.core;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import net.offbeatpioneer.retroengine.core.states.State;
+import net.offbeatpioneer.retroengine.core.time.FixedTimestep;
+
+/**
+ * A state on the state stack of the {@link StateManager} which is covered by another state
+ * (see {@link StateManager#pushGameState(Class, boolean, int)}).
+ * <p>
+ * The state stays initialised. Its logic is either frozen or updated with a reduced tick rate and it
+ * can be rendered underneath the states above it.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class SuspendedState {
+    private final State state;
+    private final boolean renderUnderneath;
+    private final int ticksPerSecond;
+    private final FixedTimestep timestep;
+
+    SuspendedState(State state, boolean renderUnderneath, int ticksPerSecond) {
+        this.state = state;
+        this.renderUnderneath = renderUnderneath;
+        this.ticksPerSecond = Math.max(0, ticksPerSecond);
+        if (this.ticksPerSecond > 0) {
+            // a throttled state doesn't catch up missed ticks
+            timestep = new FixedTimestep(this.ticksPerSecond, 1);
+            timestep.reset(RetroEngine.getNanoTime());
+        } else {
+            timestep = null;
+        }
+    }
+
+    /**
+     * Update the logic of the state if it is throttled and a tick is due
+     *
+     * @param now current time of the engine in nanoseconds
+     */
+    void update(long now) {
+        if (timestep == null) {
+            return;
+        }
+        timestep.beginFrame(now);
+        while (timestep.consumeTick()) {
+            state.updateLogic();
+        }
+    }
+
+    void render(Canvas canvas, Paint paint, long currentTime) {
+        int count = canvas.save();
+        try {
+            state.render(canvas, paint, currentTime, 0f);
+        } finally {
+            canvas.restoreToCount(count);
+        }
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Check if the state is rendered underneath the states above it
+     *
+     * @return true, if the state is visible
+     */
+    public boolean isRenderUnderneath() {
+        return renderUnderneath;
+    }
+
+    /**
+     * Check if the logic of the state is paused
+     *
+     * @return true, if the state isn't updated
+     */
+    public boolean isFrozen() {
+        return timestep == null;
+    }
+
+    /**
+     * Tick rate of the state while it is suspended
+     *
+     * @return ticks per second, 0 if the state is frozen
+     */
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+}
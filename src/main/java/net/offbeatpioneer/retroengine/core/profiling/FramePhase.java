@@ -0,0 +1,30 @@
+package net.offbeatpioneer.retroengine.core.profiling;
+
+/**
+ * Phases of a frame that are measured by the {@link FrameProfiler}
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public enum FramePhase {
+    /**
+     * Logic updates of the active state ({@code State#updateLogic()}) within the frame
+     */
+    UPDATE,
+    /**
+     * Translation of the canvas and drawing of the background layers ({@code BackgroundNode#scrollWorld})
+     */
+    SCROLL,
+    /**
+     * Drawing of the sprites of the root group ({@code State#drawSprites})
+     */
+    DRAW,
+    /**
+     * Waiting time for {@code lockCanvas} and {@code unlockCanvasAndPost} of the surface
+     */
+    CANVAS_WAIT,
+    /**
+     * Duration of the whole frame
+     */
+    FRAME
+}
@@ -0,0 +1,220 @@
+package net.offbeatpioneer.retroengine.core.profiling;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures how long the single phases of a frame ({@link FramePhase}) take.
+ * This class is implemented as singleton.
+ * <p>
+ * The time of a phase is measured with a pair of {@link FrameProfiler#begin()} and
+ * {@link FrameProfiler#end(FramePhase, long)} calls. If a phase occurs multiple times within a
+ * frame (e.g. several logic updates) the times are summed up. At the end of each frame the
+ * {@link net.offbeatpioneer.retroengine.view.RenderThread} calls {@link FrameProfiler#endFrame()}
+ * which adds the times to a {@link RollingHistogram} per phase.
+ * <p>
+ * The recording doesn't allocate any memory, so the profiler can stay enabled in production builds.
+ * The measured times are the real elapsed times ({@link System#nanoTime()}) and not the time of the
+ * engine clock.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class FrameProfiler {
+    public static final int DEFAULT_WINDOW_SIZE = 300;
+
+    private static final FramePhase[] PHASES = FramePhase.values();
+    private static final long NOT_MEASURED = Long.MIN_VALUE;
+
+    private static FrameProfiler instance = null;
+
+    private volatile boolean enabled = true;
+    private final AtomicLongArray currentFrame = new AtomicLongArray(PHASES.length);
+    private final RollingHistogram[] histograms = new RollingHistogram[PHASES.length];
+    private final RollingHistogram stateTransitions = new RollingHistogram(32);
+    private long frameCount = 0;
+    private volatile IFrameTimingListener listener = null;
+    private int reportInterval = 60;
+
+    public static synchronized FrameProfiler getInstance() {
+        if (instance == null)
+            instance = new FrameProfiler(DEFAULT_WINDOW_SIZE);
+        return instance;
+    }
+
+    private FrameProfiler(int windowSize) {
+        for (int i = 0; i < PHASES.length; i++) {
+            histograms[i] = new RollingHistogram(windowSize);
+        }
+    }
+
+    /**
+     * Start the measurement of a phase
+     *
+     * @return start time which has to be passed to {@link FrameProfiler#end(FramePhase, long)}
+     */
+    public long begin() {
+        return enabled ? System.nanoTime() : NOT_MEASURED;
+    }
+
+    /**
+     * Finish the measurement of a phase. The elapsed time is added to the time of the phase
+     * in the current frame.
+     *
+     * @param phase the measured phase
+     * @param start the value returned by {@link FrameProfiler#begin()}
+     */
+    public void end(FramePhase phase, long start) {
+        if (start != NOT_MEASURED) {
+            currentFrame.addAndGet(phase.ordinal(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Finish the current frame. The times of all phases are recorded in the histograms
+     * and the listener is notified if the report interval is reached.
+     */
+    public void endFrame() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (histograms) {
+            for (int i = 0; i < PHASES.length; i++) {
+                histograms[i].record(currentFrame.getAndSet(i, 0));
+            }
+            frameCount++;
+        }
+        IFrameTimingListener l = listener;
+        if (l != null && frameCount % reportInterval == 0) {
+            l.onFrameTimings(this);
+        }
+    }
+
+    /**
+     * Get a percentile of the time of a phase over the recent frames
+     *
+     * @param phase      the phase
+     * @param percentile percentile between 0 and 100, e.g. 99 for p99
+     * @return time in nanoseconds
+     */
+    public long getPercentile(FramePhase phase, float percentile) {
+        synchronized (histograms) {
+            return histograms[phase.ordinal()].getPercentile(percentile);
+        }
+    }
+
+    /**
+     * Mean time of a phase over the recent frames
+     *
+     * @param phase the phase
+     * @return time in nanoseconds
+     */
+    public long getMean(FramePhase phase) {
+        synchronized (histograms) {
+            return histograms[phase.ordinal()].getMean();
+        }
+    }
+
+    /**
+     * Time of a phase in the last finished frame
+     *
+     * @param phase the phase
+     * @return time in nanoseconds
+     */
+    public long getLast(FramePhase phase) {
+        synchronized (histograms) {
+            return histograms[phase.ordinal()].getLast();
+        }
+    }
+
+    /**
+     * Number of frames recorded since the start or the last reset
+     *
+     * @return frame count
+     */
+    public long getFrameCount() {
+        synchronized (histograms) {
+            return frameCount;
+        }
+    }
+
+    /**
+     * Record the latency of a state change, that means the time from the start of
+     * the state change until the first frame of the new state was posted
+     *
+     * @param nanos latency in nanoseconds
+     */
+    public void recordStateTransition(long nanos) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (histograms) {
+            stateTransitions.record(nanos);
+        }
+    }
+
+    /**
+     * Get a percentile of the latency of the recent state changes
+     *
+     * @param percentile percentile between 0 and 100
+     * @return latency in nanoseconds
+     */
+    public long getStateTransitionPercentile(float percentile) {
+        synchronized (histograms) {
+            return stateTransitions.getPercentile(percentile);
+        }
+    }
+
+    /**
+     * Latency of the last state change
+     *
+     * @return latency in nanoseconds
+     */
+    public long getLastStateTransition() {
+        synchronized (histograms) {
+            return stateTransitions.getLast();
+        }
+    }
+
+    /**
+     * Remove all recorded timings
+     */
+    public void reset() {
+        synchronized (histograms) {
+            for (int i = 0; i < PHASES.length; i++) {
+                histograms[i].reset();
+                currentFrame.set(i, 0);
+            }
+            stateTransitions.reset();
+            frameCount = 0;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enable or disable the profiler. If disabled, the calls of {@code begin}, {@code end} and
+     * {@code endFrame} do nothing.
+     *
+     * @param enabled true, to measure the timings
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Set a listener which gets notified every {@code reportInterval} frames
+     *
+     * @param listener       the listener or {@code null} to remove it
+     * @param reportInterval number of frames between two notifications
+     */
+    public void setListener(IFrameTimingListener listener, int reportInterval) {
+        this.reportInterval = Math.max(1, reportInterval);
+        this.listener = listener;
+    }
+
+    public IFrameTimingListener getListener() {
+        return listener;
+    }
+}
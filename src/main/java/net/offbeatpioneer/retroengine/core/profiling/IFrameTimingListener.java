@@ -0,0 +1,20 @@
+package net.offbeatpioneer.retroengine.core.profiling;
+
+/**
+ * Listener for the frame timings which are measured by the {@link FrameProfiler}.
+ * <p>
+ * The listener is called on the render thread, so an implementation should only read the
+ * values and hand them over to another thread if further processing is necessary.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public interface IFrameTimingListener {
+
+    /**
+     * Called every {@code reportInterval} frames (see {@link FrameProfiler#setListener(IFrameTimingListener, int)})
+     *
+     * @param profiler the profiler to query the timings, e.g. with {@link FrameProfiler#getPercentile(FramePhase, float)}
+     */
+    void onFrameTimings(FrameProfiler profiler);
+}
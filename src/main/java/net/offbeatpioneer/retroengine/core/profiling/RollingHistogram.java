@@ -0,0 +1,153 @@
+package net.offbeatpioneer.retroengine.core.profiling;
+
+/**
+ * Histogram over a fixed number of the most recent samples. Used to calculate percentiles
+ * of frame timings.
+ * <p>
+ * The samples are counted in buckets with a logarithmic scale (about 3% relative error), so a
+ * percentile can be calculated without sorting. All memory is allocated in the constructor,
+ * recording a sample doesn't allocate anything.
+ * <p>
+ * The class is not thread-safe. Values read from another thread than the recording one may be
+ * slightly inconsistent.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class RollingHistogram {
+    // values below are counted in linear buckets of 1 microsecond
+    private static final int LINEAR_BUCKETS = 64;
+    private static final int SUB_BUCKETS = 32;
+    private static final int MAX_MAGNITUDE = 30;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_MAGNITUDE - 5) * SUB_BUCKETS;
+
+    private final int[] buckets = new int[BUCKET_COUNT];
+    private final int[] sampleBuckets;
+    private final long[] sampleValues;
+    private int next = 0;
+    private int count = 0;
+    private long sum = 0;
+    private long last = 0;
+
+    /**
+     * Constructor
+     *
+     * @param windowSize number of the most recent samples taken into account
+     */
+    public RollingHistogram(int windowSize) {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("windowSize must be greater than 0");
+        }
+        sampleBuckets = new int[windowSize];
+        sampleValues = new long[windowSize];
+    }
+
+    /**
+     * Add a new sample. The oldest sample is removed if the window is full.
+     *
+     * @param nanos value in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        if (count == sampleBuckets.length) {
+            buckets[sampleBuckets[next]]--;
+            sum -= sampleValues[next];
+        } else {
+            count++;
+        }
+        int bucket = bucketOf(nanos / 1000);
+        buckets[bucket]++;
+        sampleBuckets[next] = bucket;
+        sampleValues[next] = nanos;
+        sum += nanos;
+        last = nanos;
+        next = (next + 1) % sampleBuckets.length;
+    }
+
+    /**
+     * Get a percentile of the samples in the window
+     *
+     * @param percentile percentile between 0 and 100, e.g. 95 for the p95 value
+     * @return value in nanoseconds or 0 if no sample was recorded
+     */
+    public long getPercentile(float percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(100f, Math.max(0f, percentile)) / 100f * count);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return upperBoundOf(i) * 1000;
+            }
+        }
+        return upperBoundOf(BUCKET_COUNT - 1) * 1000;
+    }
+
+    /**
+     * Mean of the samples in the window
+     *
+     * @return mean value in nanoseconds
+     */
+    public long getMean() {
+        return count == 0 ? 0 : sum / count;
+    }
+
+    /**
+     * The most recently recorded sample
+     *
+     * @return value in nanoseconds
+     */
+    public long getLast() {
+        return last;
+    }
+
+    /**
+     * Number of samples in the window
+     *
+     * @return sample count
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Remove all samples
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = 0;
+        }
+        next = 0;
+        count = 0;
+        sum = 0;
+        last = 0;
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros < LINEAR_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude >= MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) ((micros >> (magnitude - 5)) & (SUB_BUCKETS - 1));
+        return LINEAR_BUCKETS + (magnitude - 6) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket + 1;
+        }
+        int magnitude = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + 6;
+        int sub = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS;
+        return ((long) (SUB_BUCKETS + sub + 1)) << (magnitude - 5);
+    }
+}
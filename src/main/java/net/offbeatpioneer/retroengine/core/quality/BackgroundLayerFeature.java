@@ -0,0 +1,38 @@
+package net.offbeatpioneer.retroengine.core.quality;
+
+import net.offbeatpioneer.retroengine.core.states.State;
+
+/**
+ * Reduces the number of drawn background layers of a state when degraded.
+ * The layers that were added last are skipped.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class BackgroundLayerFeature extends DegradableFeature {
+    private final State state;
+    private final int maxLayers;
+
+    /**
+     * Constructor
+     *
+     * @param state     state whose background layers are reduced
+     * @param maxLayers number of layers that are still drawn when degraded
+     * @param cost      estimated cost of the skipped layers
+     */
+    public BackgroundLayerFeature(State state, int maxLayers, int cost) {
+        super("BackgroundLayers", cost);
+        this.state = state;
+        this.maxLayers = maxLayers;
+    }
+
+    @Override
+    protected void onDegrade() {
+        state.setMaxVisibleBackgroundLayers(maxLayers);
+    }
+
+    @Override
+    protected void onRestore() {
+        state.setMaxVisibleBackgroundLayers(-1);
+    }
+}
@@ -0,0 +1,65 @@
+package net.offbeatpioneer.retroengine.core.quality;
+
+/**
+ * Base class for a feature whose quality can be reduced by the {@link QualityGovernor}
+ * if the frame budget is exceeded.
+ * <p>
+ * Each feature declares a cost. Features with a higher cost are degraded first and
+ * restored last. Subclasses implement what happens in {@code onDegrade()} and {@code onRestore()}.
+ * Both methods are called on the render thread between two frames.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public abstract class DegradableFeature {
+    private final String name;
+    private final int cost;
+    private boolean degraded = false;
+
+    /**
+     * Constructor
+     *
+     * @param name name of the feature, e.g. for logging
+     * @param cost estimated cost of the feature, features with a higher cost are degraded first
+     */
+    protected DegradableFeature(String name, int cost) {
+        this.name = name;
+        this.cost = cost;
+    }
+
+    /**
+     * Reduce the quality of the feature to save rendering time
+     */
+    protected abstract void onDegrade();
+
+    /**
+     * Restore the full quality of the feature
+     */
+    protected abstract void onRestore();
+
+    final void degrade() {
+        if (!degraded) {
+            degraded = true;
+            onDegrade();
+        }
+    }
+
+    final void restore() {
+        if (degraded) {
+            degraded = false;
+            onRestore();
+        }
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCost() {
+        return cost;
+    }
+}
@@ -0,0 +1,220 @@
+package net.offbeatpioneer.retroengine.core.quality;
+
+import android.util.Log;
+
+import net.offbeatpioneer.retroengine.core.profiling.FramePhase;
+import net.offbeatpioneer.retroengine.core.profiling.FrameProfiler;
+import net.offbeatpioneer.retroengine.core.states.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps the frame rate stable by degrading the quality of registered features if the
+ * frame budget is exceeded, and restores them when there is enough headroom again.
+ * <p>
+ * Features can be registered globally with {@link QualityGovernor#addFeature(DegradableFeature)} or
+ * for a specific state with {@link State#addDegradableFeature(DegradableFeature)}. The features of a
+ * state are restored when the state isn't active anymore, degraded global features stay degraded.
+ * <p>
+ * The governor is called by the {@link net.offbeatpioneer.retroengine.view.RenderThread} after each frame
+ * (see {@link net.offbeatpioneer.retroengine.view.RenderThread#setQualityGovernor(QualityGovernor)}).
+ * It uses the work time of the frame measured by the {@link FrameProfiler}, that means the duration of
+ * the frame without waiting for the canvas. The profiler must be enabled.
+ * <p>
+ * If the work time exceeds the budget in {@code degradeAfterFrames} consecutive frames the feature with the
+ * highest cost is degraded. If the work time stays below {@code headroom * budget} for {@code restoreAfterFrames}
+ * consecutive frames the last degraded feature is restored.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class QualityGovernor {
+    private static final String TAG = "QualityGovernor";
+
+    private final List<DegradableFeature> features = new ArrayList<>();
+    private final List<DegradableFeature> degradedFeatures = new ArrayList<>();
+    private final FrameProfiler profiler = FrameProfiler.getInstance();
+    private long frameBudgetNanos;
+    private float headroom = 0.7f;
+    private int degradeAfterFrames = 15;
+    private int restoreAfterFrames = 120;
+    private int overBudgetFrames = 0;
+    private int underBudgetFrames = 0;
+    private State lastState = null;
+
+    /**
+     * Governor with a budget for 60 frames per second
+     */
+    public QualityGovernor() {
+        this(60);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param targetFps frame rate to keep
+     */
+    public QualityGovernor(int targetFps) {
+        setTargetFps(targetFps);
+    }
+
+    /**
+     * Register a feature that is independent of a state
+     *
+     * @param feature the feature
+     */
+    public synchronized void addFeature(DegradableFeature feature) {
+        if (feature != null && !features.contains(feature))
+            features.add(feature);
+    }
+
+    /**
+     * Remove a feature. It is restored if it was degraded.
+     *
+     * @param feature the feature
+     */
+    public synchronized void removeFeature(DegradableFeature feature) {
+        features.remove(feature);
+        if (degradedFeatures.remove(feature)) {
+            feature.restore();
+        }
+    }
+
+    /**
+     * Called after every frame by the render thread
+     *
+     * @param state the active state
+     */
+    public synchronized void onFrame(State state) {
+        if (state != lastState) {
+            restoreStateFeatures();
+            lastState = state;
+        }
+        if (!profiler.isEnabled()) {
+            return;
+        }
+        long work = profiler.getLast(FramePhase.FRAME) - profiler.getLast(FramePhase.CANVAS_WAIT);
+        if (work > frameBudgetNanos) {
+            underBudgetFrames = 0;
+            if (++overBudgetFrames >= degradeAfterFrames) {
+                overBudgetFrames = 0;
+                degradeNext(state);
+            }
+        } else if (work < frameBudgetNanos * headroom) {
+            overBudgetFrames = 0;
+            if (++underBudgetFrames >= restoreAfterFrames) {
+                underBudgetFrames = 0;
+                restoreLast();
+            }
+        } else {
+            overBudgetFrames = 0;
+            underBudgetFrames = 0;
+        }
+    }
+
+    private void degradeNext(State state) {
+        DegradableFeature candidate = findCandidate(features, null);
+        if (state != null) {
+            candidate = findCandidate(state.getDegradableFeatures(), candidate);
+        }
+        if (candidate != null) {
+            candidate.degrade();
+            degradedFeatures.add(candidate);
+            Log.d(TAG, "Degraded " + candidate.getName());
+        }
+    }
+
+    private DegradableFeature findCandidate(List<DegradableFeature> list, DegradableFeature best) {
+        for (int i = 0, n = list.size(); i < n; i++) {
+            DegradableFeature each = list.get(i);
+            if (!each.isDegraded() && (best == null || each.getCost() > best.getCost())) {
+                best = each;
+            }
+        }
+        return best;
+    }
+
+    private void restoreLast() {
+        int n = degradedFeatures.size();
+        if (n > 0) {
+            DegradableFeature feature = degradedFeatures.remove(n - 1);
+            feature.restore();
+            Log.d(TAG, "Restored " + feature.getName());
+        }
+    }
+
+    /**
+     * Restore the degraded features of the previous state. Global features are kept degraded because
+     * the new state is rendered with them as well.
+     */
+    private void restoreStateFeatures() {
+        for (int i = degradedFeatures.size() - 1; i >= 0; i--) {
+            DegradableFeature feature = degradedFeatures.get(i);
+            if (!features.contains(feature)) {
+                degradedFeatures.remove(i);
+                feature.restore();
+                Log.d(TAG, "Restored " + feature.getName());
+            }
+        }
+        overBudgetFrames = 0;
+        underBudgetFrames = 0;
+    }
+
+    /**
+     * Restore all degraded features
+     */
+    public synchronized void restoreAll() {
+        for (int i = degradedFeatures.size() - 1; i >= 0; i--) {
+            degradedFeatures.get(i).restore();
+        }
+        degradedFeatures.clear();
+        overBudgetFrames = 0;
+        underBudgetFrames = 0;
+    }
+
+    /**
+     * Number of currently degraded features
+     *
+     * @return the quality level, 0 means full quality
+     */
+    public synchronized int getDegradationLevel() {
+        return degradedFeatures.size();
+    }
+
+    /**
+     * Set the frame rate to keep. The frame budget is derived from it.
+     *
+     * @param targetFps frame rate, must be greater than 0
+     */
+    public void setTargetFps(int targetFps) {
+        if (targetFps <= 0) {
+            throw new IllegalArgumentException("targetFps must be greater than 0");
+        }
+        this.frameBudgetNanos = 1000000000L / targetFps;
+    }
+
+    public long getFrameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+
+    /**
+     * Set the fraction of the budget the work time has to stay below before a feature is restored
+     *
+     * @param headroom value between 0 and 1, default is 0.7
+     */
+    public void setHeadroom(float headroom) {
+        this.headroom = headroom;
+    }
+
+    /**
+     * Set after how many frames a feature is degraded or restored
+     *
+     * @param degradeAfterFrames consecutive frames over budget
+     * @param restoreAfterFrames consecutive frames with headroom
+     */
+    public void setHysteresis(int degradeAfterFrames, int restoreAfterFrames) {
+        this.degradeAfterFrames = Math.max(1, degradeAfterFrames);
+        this.restoreAfterFrames = Math.max(1, restoreAfterFrames);
+    }
+}
@@ -0,0 +1,38 @@
+package net.offbeatpioneer.retroengine.core.quality;
+
+import net.offbeatpioneer.retroengine.view.RenderThread;
+
+/**
+ * Lowers the resolution of the drawing surface when degraded. The surface is upscaled by the
+ * system compositor, the coordinates of the states and sprites don't change.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class RenderResolutionFeature extends DegradableFeature {
+    private final RenderThread renderThread;
+    private final float scale;
+
+    /**
+     * Constructor
+     *
+     * @param renderThread the render thread
+     * @param scale        scale of the resolution when degraded, between 0 and 1
+     * @param cost         estimated cost of the full resolution
+     */
+    public RenderResolutionFeature(RenderThread renderThread, float scale, int cost) {
+        super("RenderResolution", cost);
+        this.renderThread = renderThread;
+        this.scale = scale;
+    }
+
+    @Override
+    protected void onDegrade() {
+        renderThread.setRenderScale(scale);
+    }
+
+    @Override
+    protected void onRestore() {
+        renderThread.setRenderScale(1f);
+    }
+}
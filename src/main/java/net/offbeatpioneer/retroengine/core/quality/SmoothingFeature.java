@@ -0,0 +1,32 @@
+package net.offbeatpioneer.retroengine.core.quality;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+
+/**
+ * Disables anti-aliasing and bitmap filtering for all sprites when degraded.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class SmoothingFeature extends DegradableFeature {
+    private boolean antiAlias;
+    private boolean filterBitmap;
+
+    public SmoothingFeature(int cost) {
+        super("Smoothing", cost);
+    }
+
+    @Override
+    protected void onDegrade() {
+        antiAlias = RetroEngine.isAntiAlias();
+        filterBitmap = RetroEngine.isFilterBitmap();
+        RetroEngine.setAntiAlias(false);
+        RetroEngine.setFilterBitmap(false);
+    }
+
+    @Override
+    protected void onRestore() {
+        RetroEngine.setAntiAlias(antiAlias);
+        RetroEngine.setFilterBitmap(filterBitmap);
+    }
+}
@@ -0,0 +1,40 @@
+package net.offbeatpioneer.retroengine.core.quality;
+
+import net.offbeatpioneer.retroengine.core.sprites.AbstractSprite;
+
+/**
+ * Hides a sprite or a whole sprite group when degraded, e.g. particles or decorative elements.
+ * The sprite is still updated but not drawn.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class SpriteVisibilityFeature extends DegradableFeature {
+    private final AbstractSprite sprite;
+
+    /**
+     * Constructor
+     *
+     * @param name   name of the feature
+     * @param sprite sprite or sprite group to hide
+     * @param cost   estimated cost of drawing the sprite
+     */
+    public SpriteVisibilityFeature(String name, AbstractSprite sprite, int cost) {
+        super(name, cost);
+        this.sprite = sprite;
+    }
+
+    @Override
+    protected void onDegrade() {
+        sprite.setDisable(true);
+    }
+
+    @Override
+    protected void onRestore() {
+        sprite.setDisable(false);
+    }
+
+    public AbstractSprite getSprite() {
+        return sprite;
+    }
+}
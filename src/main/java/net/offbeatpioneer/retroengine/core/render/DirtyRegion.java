@@ -0,0 +1,154 @@
+package net.offbeatpioneer.retroengine.core.render;
+
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Region of the drawing surface that must be repainted in the next frame. Used by the
+ * dirty-rectangle mode of the {@link net.offbeatpioneer.retroengine.view.RenderThread}.
+ * <p>
+ * Sprites and background layers add the areas they occupied in the last frame and the areas they
+ * will occupy in the next frame if something visible changed. The damaged areas are merged into
+ * one bounding rectangle in screen coordinates. A region can also be marked as fully damaged,
+ * then the whole surface is repainted.
+ * <p>
+ * No memory is allocated after the construction.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class DirtyRegion {
+    // additional margin in pixels for anti-aliased edges
+    private static final int MARGIN = 1;
+
+    private final RectF bounds = new RectF();
+    private boolean empty = true;
+    private boolean full = true;
+    private float offsetX = 0;
+    private float offsetY = 0;
+    private int damageCount = 0;
+
+    /**
+     * Add a damaged area
+     *
+     * @param rect area in the coordinates of the current offset
+     */
+    public void add(RectF rect) {
+        add(rect.left, rect.top, rect.right, rect.bottom);
+    }
+
+    /**
+     * Add a damaged area
+     *
+     * @param left   left position
+     * @param top    top position
+     * @param right  right position
+     * @param bottom bottom position
+     */
+    public void add(float left, float top, float right, float bottom) {
+        if (full || left >= right || top >= bottom) {
+            return;
+        }
+        left += offsetX;
+        right += offsetX;
+        top += offsetY;
+        bottom += offsetY;
+        if (empty) {
+            bounds.set(left, top, right, bottom);
+            empty = false;
+        } else {
+            bounds.union(left, top, right, bottom);
+        }
+        damageCount++;
+    }
+
+    /**
+     * Mark the whole surface as damaged
+     */
+    public void invalidateAll() {
+        full = true;
+    }
+
+    /**
+     * Check if the whole surface has to be repainted
+     *
+     * @return true, if the whole surface is damaged
+     */
+    public boolean isFull() {
+        return full;
+    }
+
+    /**
+     * Check if nothing has to be repainted
+     *
+     * @return true, if nothing is damaged
+     */
+    public boolean isEmpty() {
+        return !full && empty;
+    }
+
+    /**
+     * Set the offset which is added to all following areas, e.g. to transform the world
+     * coordinates of sprites into screen coordinates.
+     *
+     * @param offsetX offset in x-direction
+     * @param offsetY offset in y-direction
+     */
+    public void setOffset(float offsetX, float offsetY) {
+        this.offsetX = offsetX;
+        this.offsetY = offsetY;
+    }
+
+    /**
+     * Remove all damaged areas for the next frame
+     */
+    public void reset() {
+        bounds.setEmpty();
+        empty = true;
+        full = false;
+        offsetX = 0;
+        offsetY = 0;
+        damageCount = 0;
+    }
+
+    /**
+     * Bounding rectangle of all damaged areas in screen coordinates. Not meaningful if the region is full.
+     *
+     * @return the bounds
+     */
+    public RectF getBounds() {
+        return bounds;
+    }
+
+    /**
+     * Number of areas that were added since the last reset
+     *
+     * @return number of areas
+     */
+    public int getDamageCount() {
+        return damageCount;
+    }
+
+    /**
+     * Convert the region into a rectangle of the surface. The rectangle is rounded out and
+     * clamped to the size of the surface.
+     *
+     * @param out    the result
+     * @param scale  scale between the logical size and the size of the surface
+     * @param width  width of the surface
+     * @param height height of the surface
+     */
+    public void toRect(Rect out, float scale, int width, int height) {
+        if (full || empty) {
+            out.set(0, 0, full ? width : 0, full ? height : 0);
+            return;
+        }
+        out.set((int) Math.floor(bounds.left * scale) - MARGIN,
+                (int) Math.floor(bounds.top * scale) - MARGIN,
+                (int) Math.ceil(bounds.right * scale) + MARGIN,
+                (int) Math.ceil(bounds.bottom * scale) + MARGIN);
+        if (!out.intersect(0, 0, width, height)) {
+            out.setEmpty();
+        }
+    }
+}
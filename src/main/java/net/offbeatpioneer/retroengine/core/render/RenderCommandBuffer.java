@@ -0,0 +1,493 @@
+package net.offbeatpioneer.retroengine.core.render;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.sprites.AbstractSprite;
+
+import java.util.Arrays;
+
+/**
+ * Compact and reusable list of drawing commands. The sprites of a state record their drawing
+ * commands during the traversal of the sprite groups, afterwards the commands are replayed in a
+ * tight loop on the canvas.
+ * <p>
+ * Each command consists of a texture id, an optional source rectangle of the texture, an affine
+ * transformation and the interned {@link RenderState} of the sprite (alpha value, color filter, ...),
+ * which is applied through the {@link SharedPaint} of the thread during the replay. The values are held in primitive arrays which grow if needed,
+ * so recording and replaying doesn't allocate memory after the warm-up.
+ * <p>
+ * Sprites that implement their own drawing can't be recorded. They are added as a deferred command
+ * and their draw method is called during the replay at the same position.
+ * <p>
+ * Optionally the commands are sorted by texture before the replay (see
+ * {@link RenderCommandBuffer#setSortByTexture(boolean)}). The number of draw calls and texture
+ * switches of the last replay can be queried.
+ * <p>
+ * With mesh batching (see {@link RenderCommandBuffer#setMeshBatching(boolean)}) consecutive commands with
+ * the same texture are drawn by a {@link SpriteMeshBatch} with one draw call.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class RenderCommandBuffer {
+    private static final int AFFINE_SIZE = 6;
+    private static final int NO_TEXTURE = -1;
+
+    private int size = 0;
+    private int[] textureIds;
+    private float[] transforms;
+    private int[] srcRects;
+    private boolean[] hasSrcRect;
+    private RenderState[] states;
+    private AbstractSprite[] deferred;
+    private int[] order;
+    private int[] sortTemp;
+
+    // textures of the current frame, the index is the texture id
+    private Bitmap[] textures;
+    private int textureCount = 0;
+    // open addressing table from texture to texture id
+    private Bitmap[] textureKeys;
+    private int[] textureValues;
+
+    private final float[] values = new float[9];
+    private final Matrix matrix = new Matrix();
+    private final Rect src = new Rect();
+    private final RectF dst = new RectF();
+    private long currentTime;
+    // visible area of the canvas while recording, commands outside of it are culled
+    private final Rect clipBounds = new Rect();
+    private final RectF cullRect = new RectF();
+    private boolean culling = false;
+    private boolean sortByTexture = false;
+    private SpriteMeshBatch meshBatch = null;
+    private int drawCallCount = 0;
+    private int textureSwitchCount = 0;
+
+    public RenderCommandBuffer() {
+        this(256);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param capacity initial number of commands
+     */
+    public RenderCommandBuffer(int capacity) {
+        capacity = Math.max(16, capacity);
+        textureIds = new int[capacity];
+        transforms = new float[capacity * AFFINE_SIZE];
+        srcRects = new int[capacity * 4];
+        hasSrcRect = new boolean[capacity];
+        states = new RenderState[capacity];
+        deferred = new AbstractSprite[capacity];
+        order = new int[capacity];
+        sortTemp = new int[capacity];
+        textures = new Bitmap[32];
+        textureKeys = new Bitmap[64];
+        textureValues = new int[64];
+    }
+
+    /**
+     * Remove all commands to record a new frame
+     *
+     * @param currentTime current time which is passed to deferred sprites
+     */
+    public void begin(long currentTime) {
+        for (int i = 0; i < size; i++) {
+            deferred[i] = null;
+            states[i] = null;
+        }
+        Arrays.fill(textures, 0, textureCount, null);
+        Arrays.fill(textureKeys, null);
+        size = 0;
+        textureCount = 0;
+        this.currentTime = currentTime;
+        culling = false;
+    }
+
+    /**
+     * Remove all commands to record a new frame for the canvas. The sprites check their bounds
+     * against the visible area of the canvas while recording ({@link RenderCommandBuffer#isCulled(RectF)}),
+     * so the canvas must have the same clip and transformation during the replay.
+     *
+     * @param currentTime current time which is passed to deferred sprites
+     * @param canvas      the canvas the commands are replayed on
+     */
+    public void begin(long currentTime, Canvas canvas) {
+        begin(currentTime);
+        culling = canvas.getClipBounds(clipBounds);
+        cullRect.set(clipBounds);
+    }
+
+    /**
+     * Check if an area is outside of the visible area of the canvas of the current frame
+     *
+     * @param bounds the area in world coordinates
+     * @return true, if nothing of the area is visible and it doesn't need to be recorded
+     */
+    public boolean isCulled(RectF bounds) {
+        return isCulled(bounds.left, bounds.top, bounds.right, bounds.bottom);
+    }
+
+    /**
+     * Check if an area is outside of the visible area of the canvas of the current frame
+     *
+     * @param left   left of the area
+     * @param top    top of the area
+     * @param right  right of the area
+     * @param bottom bottom of the area
+     * @return true, if nothing of the area is visible and it doesn't need to be recorded
+     */
+    public boolean isCulled(float left, float top, float right, float bottom) {
+        return culling && (right <= cullRect.left || left >= cullRect.right
+                || bottom <= cullRect.top || top >= cullRect.bottom);
+    }
+
+    /**
+     * Record the drawing of a texture with the anti-aliasing and filtering flags of {@link RetroEngine}
+     *
+     * @param texture   the texture
+     * @param srcRect   area of the texture to draw or {@code null} for the whole texture
+     * @param transform transformation from texture to world coordinates
+     * @param alpha     alpha value between 0 and 255
+     */
+    public void add(Bitmap texture, Rect srcRect, Matrix transform, int alpha) {
+        add(texture, srcRect, transform, RenderState.obtain(RetroEngine.isAntiAlias(), RetroEngine.isFilterBitmap(), alpha, null));
+    }
+
+    /**
+     * Record the drawing of a texture
+     *
+     * @param texture   the texture
+     * @param srcRect   area of the texture to draw or {@code null} for the whole texture
+     * @param transform transformation from texture to world coordinates
+     * @param state     render state of the sprite
+     */
+    public void add(Bitmap texture, Rect srcRect, Matrix transform, RenderState state) {
+        int i = next();
+        textureIds[i] = textureId(texture);
+        transform.getValues(values);
+        int t = i * AFFINE_SIZE;
+        transforms[t] = values[Matrix.MSCALE_X];
+        transforms[t + 1] = values[Matrix.MSKEW_X];
+        transforms[t + 2] = values[Matrix.MTRANS_X];
+        transforms[t + 3] = values[Matrix.MSKEW_Y];
+        transforms[t + 4] = values[Matrix.MSCALE_Y];
+        transforms[t + 5] = values[Matrix.MTRANS_Y];
+        hasSrcRect[i] = srcRect != null;
+        if (srcRect != null) {
+            srcRects[i * 4] = srcRect.left;
+            srcRects[i * 4 + 1] = srcRect.top;
+            srcRects[i * 4 + 2] = srcRect.right;
+            srcRects[i * 4 + 3] = srcRect.bottom;
+        }
+        states[i] = state;
+        deferred[i] = null;
+    }
+
+    /**
+     * Record a sprite which is drawn with its own draw method during the replay
+     *
+     * @param sprite the sprite
+     */
+    public void addDeferred(AbstractSprite sprite) {
+        int i = next();
+        textureIds[i] = NO_TEXTURE;
+        deferred[i] = sprite;
+    }
+
+    /**
+     * Issue all recorded commands on the canvas
+     *
+     * @param canvas the canvas
+     * @param paint  base paint of the mesh batches, the attributes of each command are taken from its render state
+     */
+    public void replay(Canvas canvas, Paint paint) {
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        if (sortByTexture) {
+            sortSegments();
+        }
+        values[Matrix.MPERSP_0] = 0;
+        values[Matrix.MPERSP_1] = 0;
+        values[Matrix.MPERSP_2] = 1;
+        drawCallCount = 0;
+        textureSwitchCount = 0;
+        if (meshBatch != null) {
+            replayBatched(canvas, paint);
+            return;
+        }
+        SharedPaint sharedPaint = SharedPaint.forCurrentThread();
+        int lastTexture = NO_TEXTURE;
+        for (int k = 0; k < size; k++) {
+            int i = order[k];
+            int textureId = textureIds[i];
+            if (textureId == NO_TEXTURE) {
+                deferred[i].draw(canvas, currentTime);
+                drawCallCount++;
+                lastTexture = NO_TEXTURE;
+                continue;
+            }
+            Bitmap texture = textures[textureId];
+            if (texture.isRecycled()) {
+                continue;
+            }
+            if (textureId != lastTexture) {
+                textureSwitchCount++;
+                lastTexture = textureId;
+            }
+            int t = i * AFFINE_SIZE;
+            values[Matrix.MSCALE_X] = transforms[t];
+            values[Matrix.MSKEW_X] = transforms[t + 1];
+            values[Matrix.MTRANS_X] = transforms[t + 2];
+            values[Matrix.MSKEW_Y] = transforms[t + 3];
+            values[Matrix.MSCALE_Y] = transforms[t + 4];
+            values[Matrix.MTRANS_Y] = transforms[t + 5];
+            matrix.setValues(values);
+            Paint commandPaint = sharedPaint.apply(states[i]);
+            if (hasSrcRect[i]) {
+                src.set(srcRects[i * 4], srcRects[i * 4 + 1], srcRects[i * 4 + 2], srcRects[i * 4 + 3]);
+                dst.set(0, 0, src.width(), src.height());
+                int count = canvas.save();
+                canvas.concat(matrix);
+                canvas.drawBitmap(texture, src, dst, commandPaint);
+                canvas.restoreToCount(count);
+            } else {
+                canvas.drawBitmap(texture, matrix, commandPaint);
+            }
+            drawCallCount++;
+        }
+    }
+
+    /**
+     * Issue the commands with the mesh batch. Deferred commands and a change of the render state
+     * (except the alpha value, which is stored in the vertices) end the current batch.
+     *
+     * @param canvas the canvas
+     * @param paint  paint which is used for all textures
+     */
+    private void replayBatched(Canvas canvas, Paint paint) {
+        SpriteMeshBatch batch = meshBatch;
+        batch.begin(paint);
+        int lastTexture = NO_TEXTURE;
+        int deferredCount = 0;
+        for (int k = 0; k < size; k++) {
+            int i = order[k];
+            int textureId = textureIds[i];
+            if (textureId == NO_TEXTURE) {
+                batch.flush(canvas);
+                deferred[i].draw(canvas, currentTime);
+                deferredCount++;
+                lastTexture = NO_TEXTURE;
+                continue;
+            }
+            Bitmap texture = textures[textureId];
+            if (texture.isRecycled()) {
+                continue;
+            }
+            if (textureId != lastTexture) {
+                textureSwitchCount++;
+                lastTexture = textureId;
+            }
+            RenderState state = states[i];
+            batch.setRenderState(canvas, state);
+            if (hasSrcRect[i]) {
+                int r = i * 4;
+                batch.add(canvas, texture, transforms, i * AFFINE_SIZE,
+                        srcRects[r], srcRects[r + 1], srcRects[r + 2], srcRects[r + 3], state.getAlpha());
+            } else {
+                batch.add(canvas, texture, transforms, i * AFFINE_SIZE,
+                        0, 0, texture.getWidth(), texture.getHeight(), state.getAlpha());
+            }
+        }
+        batch.flush(canvas);
+        drawCallCount = batch.getDrawCallCount() + deferredCount;
+    }
+
+    /**
+     * Sort the commands between two deferred commands by texture. The order of commands with the
+     * same texture is kept.
+     */
+    private void sortSegments() {
+        int start = 0;
+        while (start < size) {
+            if (textureIds[start] == NO_TEXTURE) {
+                start++;
+                continue;
+            }
+            int end = start;
+            while (end < size && textureIds[end] != NO_TEXTURE) {
+                end++;
+            }
+            mergeSort(start, end);
+            start = end;
+        }
+    }
+
+    // stable bottom-up merge sort of order[from, to) by texture id
+    private void mergeSort(int from, int to) {
+        int[] a = order;
+        int[] b = sortTemp;
+        for (int width = 1; width < to - from; width *= 2) {
+            for (int left = from; left < to; left += 2 * width) {
+                int mid = Math.min(left + width, to);
+                int right = Math.min(left + 2 * width, to);
+                int i = left, j = mid, k = left;
+                while (i < mid && j < right) {
+                    b[k++] = textureIds[a[i]] <= textureIds[a[j]] ? a[i++] : a[j++];
+                }
+                while (i < mid) {
+                    b[k++] = a[i++];
+                }
+                while (j < right) {
+                    b[k++] = a[j++];
+                }
+            }
+            int[] swap = a;
+            a = b;
+            b = swap;
+        }
+        if (a != order) {
+            System.arraycopy(a, from, order, from, to - from);
+        }
+    }
+
+    private int next() {
+        if (size == textureIds.length) {
+            grow();
+        }
+        return size++;
+    }
+
+    private void grow() {
+        int capacity = textureIds.length * 2;
+        textureIds = Arrays.copyOf(textureIds, capacity);
+        transforms = Arrays.copyOf(transforms, capacity * AFFINE_SIZE);
+        srcRects = Arrays.copyOf(srcRects, capacity * 4);
+        hasSrcRect = Arrays.copyOf(hasSrcRect, capacity);
+        states = Arrays.copyOf(states, capacity);
+        deferred = Arrays.copyOf(deferred, capacity);
+        order = new int[capacity];
+        sortTemp = new int[capacity];
+    }
+
+    private int textureId(Bitmap texture) {
+        int mask = textureKeys.length - 1;
+        int slot = System.identityHashCode(texture) & mask;
+        while (textureKeys[slot] != null) {
+            if (textureKeys[slot] == texture) {
+                return textureValues[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (textureCount == textures.length) {
+            textures = Arrays.copyOf(textures, textures.length * 2);
+        }
+        int id = textureCount++;
+        textures[id] = texture;
+        textureKeys[slot] = texture;
+        textureValues[slot] = id;
+        // keep the load factor of the table below 0.5
+        if (textureCount * 2 > textureKeys.length) {
+            rehash(textureKeys.length * 2);
+        }
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        textureKeys = new Bitmap[capacity];
+        textureValues = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < textureCount; id++) {
+            int slot = System.identityHashCode(textures[id]) & mask;
+            while (textureKeys[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            textureKeys[slot] = textures[id];
+            textureValues[slot] = id;
+        }
+    }
+
+    public boolean isSortByTexture() {
+        return sortByTexture;
+    }
+
+    /**
+     * Sort the commands by texture before the replay to reduce the number of texture switches.
+     * Sprites with different textures may then be drawn in a different order, so it should only be
+     * enabled if overlapping sprites with different textures don't occur or their order doesn't matter.
+     *
+     * @param sortByTexture true, to sort the commands
+     */
+    public void setSortByTexture(boolean sortByTexture) {
+        this.sortByTexture = sortByTexture;
+    }
+
+    public boolean isMeshBatching() {
+        return meshBatch != null;
+    }
+
+    /**
+     * Draw consecutive commands with the same texture with one mesh draw call instead of one
+     * bitmap draw call per command (see {@link SpriteMeshBatch}). Together with a sprite atlas
+     * and {@link RenderCommandBuffer#setSortByTexture(boolean)} thousands of sprites need only a
+     * few draw calls.
+     * <p>
+     * The mesh is drawn with {@link Canvas#drawVertices(Canvas.VertexMode, int, float[], int, float[], int, int[], int, short[], int, int, Paint)},
+     * which is supported by hardware accelerated canvases only since API level 29. The canvas of a
+     * {@link android.view.SurfaceView} is drawn in software and supports it on all versions.
+     *
+     * @param meshBatching true, to draw with meshes
+     */
+    public void setMeshBatching(boolean meshBatching) {
+        if (meshBatching && meshBatch == null) {
+            meshBatch = new SpriteMeshBatch();
+        } else if (!meshBatching) {
+            meshBatch = null;
+        }
+    }
+
+    /**
+     * Number of recorded commands
+     *
+     * @return command count
+     */
+    public int getCommandCount() {
+        return size;
+    }
+
+    /**
+     * Number of draw calls issued on the canvas by the last replay
+     *
+     * @return draw call count
+     */
+    public int getDrawCallCount() {
+        return drawCallCount;
+    }
+
+    /**
+     * Number of changes of the texture between two consecutive draw calls of the last replay
+     *
+     * @return texture switch count
+     */
+    public int getTextureSwitchCount() {
+        return textureSwitchCount;
+    }
+
+    /**
+     * Number of different textures recorded in the current frame
+     *
+     * @return texture count
+     */
+    public int getTextureCount() {
+        return textureCount;
+    }
+}
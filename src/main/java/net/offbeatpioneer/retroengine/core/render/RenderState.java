@@ -0,0 +1,166 @@
+package net.offbeatpioneer.retroengine.core.render;
+
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of paint attributes that are used to draw a sprite: anti-aliasing, bitmap filtering,
+ * alpha value and color filter.
+ * <p>
+ * The states are interned. There is only one instance for every combination of values, so sprites
+ * with the same attributes share the same object and two states can be compared by reference.
+ * A state is applied to a paint by a {@link SharedPaint} only if it differs from the state
+ * of the previous draw call.
+ * <p>
+ * Color filters are compared by reference. Sprites with the same filter should share one
+ * {@link ColorFilter} instance, otherwise every instance creates new states that are never released.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public final class RenderState {
+    private static final int ALPHA_VALUES = 256;
+    // states without color filter, indexed by flags and alpha value
+    private static final RenderState[] plainStates = new RenderState[4 * ALPHA_VALUES];
+    private static final Map<RenderState, RenderState> filteredStates = new HashMap<>();
+
+    /**
+     * Opaque state without anti-aliasing, filtering and color filter
+     */
+    public static final RenderState DEFAULT = obtain(false, false, 255, null);
+
+    private final boolean antiAlias;
+    private final boolean filterBitmap;
+    private final int alpha;
+    private final ColorFilter colorFilter;
+
+    private RenderState(boolean antiAlias, boolean filterBitmap, int alpha, ColorFilter colorFilter) {
+        this.antiAlias = antiAlias;
+        this.filterBitmap = filterBitmap;
+        this.alpha = alpha;
+        this.colorFilter = colorFilter;
+    }
+
+    /**
+     * Get the shared state for the given attributes. States without color filter are looked up
+     * without allocating memory.
+     *
+     * @param antiAlias    anti-aliasing
+     * @param filterBitmap bitmap filtering
+     * @param alpha        alpha value between 0 and 255, values outside are clamped
+     * @param colorFilter  color filter or null
+     * @return the interned state
+     */
+    public static RenderState obtain(boolean antiAlias, boolean filterBitmap, int alpha, ColorFilter colorFilter) {
+        alpha = Math.max(0, Math.min(255, alpha));
+        if (colorFilter == null) {
+            int index = ((antiAlias ? 1 : 0) | (filterBitmap ? 2 : 0)) * ALPHA_VALUES + alpha;
+            RenderState state = plainStates[index];
+            if (state == null) {
+                // a concurrent call may create a second instance, the last one wins and both are equal
+                state = new RenderState(antiAlias, filterBitmap, alpha, null);
+                plainStates[index] = state;
+            }
+            return state;
+        }
+        RenderState key = new RenderState(antiAlias, filterBitmap, alpha, colorFilter);
+        synchronized (filteredStates) {
+            RenderState state = filteredStates.get(key);
+            if (state == null) {
+                filteredStates.put(key, key);
+                state = key;
+            }
+            return state;
+        }
+    }
+
+    /**
+     * Number of interned states with a color filter
+     *
+     * @return state count
+     */
+    public static int getFilteredStateCount() {
+        synchronized (filteredStates) {
+            return filteredStates.size();
+        }
+    }
+
+    /**
+     * Remove the interned states with a color filter. Sprites can keep using their states.
+     */
+    public static void clearFilteredStates() {
+        synchronized (filteredStates) {
+            filteredStates.clear();
+        }
+    }
+
+    /**
+     * Set the attributes of this state on the paint
+     *
+     * @param paint the paint
+     */
+    public void applyTo(Paint paint) {
+        paint.setAntiAlias(antiAlias);
+        paint.setFilterBitmap(filterBitmap);
+        paint.setDither(false);
+        paint.setAlpha(alpha);
+        paint.setColorFilter(colorFilter);
+    }
+
+    public RenderState withAlpha(int alpha) {
+        if (alpha == this.alpha) {
+            return this;
+        }
+        return obtain(antiAlias, filterBitmap, alpha, colorFilter);
+    }
+
+    public RenderState withFlags(boolean antiAlias, boolean filterBitmap) {
+        if (antiAlias == this.antiAlias && filterBitmap == this.filterBitmap) {
+            return this;
+        }
+        return obtain(antiAlias, filterBitmap, alpha, colorFilter);
+    }
+
+    public RenderState withColorFilter(ColorFilter colorFilter) {
+        if (colorFilter == this.colorFilter) {
+            return this;
+        }
+        return obtain(antiAlias, filterBitmap, alpha, colorFilter);
+    }
+
+    public boolean isAntiAlias() {
+        return antiAlias;
+    }
+
+    public boolean isFilterBitmap() {
+        return filterBitmap;
+    }
+
+    public int getAlpha() {
+        return alpha;
+    }
+
+    public ColorFilter getColorFilter() {
+        return colorFilter;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RenderState)) return false;
+        RenderState that = (RenderState) o;
+        return antiAlias == that.antiAlias && filterBitmap == that.filterBitmap && alpha == that.alpha
+                && colorFilter == that.colorFilter;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (antiAlias ? 1 : 0) | (filterBitmap ? 2 : 0);
+        result = 31 * result + alpha;
+        result = 31 * result + System.identityHashCode(colorFilter);
+        return result;
+    }
+}
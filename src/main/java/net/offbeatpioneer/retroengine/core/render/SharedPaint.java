@@ -0,0 +1,91 @@
+package net.offbeatpioneer.retroengine.core.render;
+
+import android.graphics.Paint;
+
+/**
+ * Paint that is shared by all sprites which are drawn on the same thread.
+ * <p>
+ * Instead of holding an own {@link Paint} each sprite references an interned {@link RenderState}.
+ * Before a sprite is drawn its state is applied to the shared paint, but only if it is a different
+ * state than the one of the previous draw call. Sprites with equal attributes that are drawn one after
+ * another don't touch the paint at all.
+ * <p>
+ * The paint must not be modified directly, otherwise the remembered state doesn't match the paint
+ * anymore. Call {@link SharedPaint#invalidate()} after a direct modification.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public final class SharedPaint {
+
+    private static final ThreadLocal<SharedPaint> perThread = new ThreadLocal<SharedPaint>() {
+        @Override
+        protected SharedPaint initialValue() {
+            return new SharedPaint();
+        }
+    };
+
+    private final Paint paint = new Paint();
+    private RenderState current = null;
+    private long stateChanges = 0;
+    private long stateReuses = 0;
+
+    /**
+     * Get the shared paint of the calling thread
+     *
+     * @return shared paint of the thread
+     */
+    public static SharedPaint forCurrentThread() {
+        return perThread.get();
+    }
+
+    private SharedPaint() {
+    }
+
+    /**
+     * Apply the state to the paint if it differs from the last one
+     *
+     * @param state the render state
+     * @return the paint with the attributes of the state
+     */
+    public Paint apply(RenderState state) {
+        if (state != current) {
+            state.applyTo(paint);
+            current = state;
+            stateChanges++;
+        } else {
+            stateReuses++;
+        }
+        return paint;
+    }
+
+    /**
+     * Forget the last applied state, the next call of {@link SharedPaint#apply(RenderState)} sets all attributes
+     */
+    public void invalidate() {
+        current = null;
+    }
+
+    /**
+     * Number of times the attributes of the paint were changed
+     *
+     * @return count since the last reset
+     */
+    public long getStateChanges() {
+        return stateChanges;
+    }
+
+    /**
+     * Number of draw calls that could use the paint without changing it
+     *
+     * @return count since the last reset
+     */
+    public long getStateReuses() {
+        return stateReuses;
+    }
+
+    public void resetCounters() {
+        stateChanges = 0;
+        stateReuses = 0;
+    }
+}
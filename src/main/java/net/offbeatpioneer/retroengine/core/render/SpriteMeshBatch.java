@@ -0,0 +1,225 @@
+package net.offbeatpioneer.retroengine.core.render;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Draws many sprites of the same texture (e.g. a sprite atlas) with a single
+ * {@link Canvas#drawVertices(Canvas.VertexMode, int, float[], int, float[], int, int[], int, short[], int, int, Paint)} call.
+ * <p>
+ * Each sprite is a quad of two triangles. The corners are transformed on the CPU into a reusable vertex array,
+ * the texture coordinates select the source rectangle of the texture and the alpha value of the sprite is
+ * stored in the vertex colors, which are modulated with the texture. The texture is bound with a
+ * {@link BitmapShader} that is created once per texture.
+ * <p>
+ * A batch is drawn when the texture or the render state (except the alpha value) changes, when it is full
+ * or when it is flushed explicitly.
+ * The arrays grow if needed, so no memory is allocated after the warm-up.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class SpriteMeshBatch {
+    // the indices are unsigned 16 bit values
+    private static final int MAX_SPRITES = 65536 / 4;
+    private static final int OPAQUE_WHITE = 0x00FFFFFF;
+
+    private final Map<Bitmap, BitmapShader> shaders = new WeakHashMap<>();
+    private final Paint meshPaint = new Paint();
+    private float[] verts;
+    private float[] texs;
+    private int[] colors;
+    private short[] indices;
+    private int count = 0;
+    private Bitmap texture = null;
+    private BitmapShader shader = null;
+    private int drawCallCount = 0;
+    // attributes of the current batch
+    private boolean antiAlias;
+    private boolean filterBitmap;
+    private ColorFilter colorFilter;
+
+    public SpriteMeshBatch() {
+        this(64);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param capacity initial number of sprites per batch
+     */
+    public SpriteMeshBatch(int capacity) {
+        allocate(Math.max(1, Math.min(capacity, MAX_SPRITES)));
+    }
+
+    private void allocate(int capacity) {
+        verts = new float[capacity * 8];
+        texs = new float[capacity * 8];
+        // some implementations expect one color per float of the vertex array
+        colors = new int[capacity * 8];
+        indices = new short[capacity * 6];
+        for (int i = 0; i < capacity; i++) {
+            int v = i * 4;
+            int k = i * 6;
+            indices[k] = (short) v;
+            indices[k + 1] = (short) (v + 1);
+            indices[k + 2] = (short) (v + 2);
+            indices[k + 3] = (short) v;
+            indices[k + 4] = (short) (v + 2);
+            indices[k + 5] = (short) (v + 3);
+        }
+    }
+
+    private void grow() {
+        float[] oldVerts = verts;
+        float[] oldTexs = texs;
+        int[] oldColors = colors;
+        allocate(Math.min(MAX_SPRITES, (verts.length / 8) * 2));
+        System.arraycopy(oldVerts, 0, verts, 0, count * 8);
+        System.arraycopy(oldTexs, 0, texs, 0, count * 8);
+        System.arraycopy(oldColors, 0, colors, 0, count * 4);
+    }
+
+    /**
+     * Start drawing. The flags of the paint (anti-aliasing, filtering, color filter, ...) are used for
+     * all batches until the next call.
+     *
+     * @param paint the paint
+     */
+    public void begin(Paint paint) {
+        count = 0;
+        texture = null;
+        shader = null;
+        drawCallCount = 0;
+        meshPaint.set(paint);
+        meshPaint.setAlpha(255);
+        antiAlias = meshPaint.isAntiAlias();
+        filterBitmap = meshPaint.isFilterBitmap();
+        colorFilter = meshPaint.getColorFilter();
+    }
+
+    /**
+     * Use the anti-aliasing, filtering and color filter of a render state for the following sprites.
+     * If they differ from the ones of the current batch, the batch is drawn first. The alpha value
+     * of the state is ignored, it is passed per sprite.
+     *
+     * @param canvas the canvas
+     * @param state  the render state
+     */
+    public void setRenderState(Canvas canvas, RenderState state) {
+        if (state.isAntiAlias() == antiAlias && state.isFilterBitmap() == filterBitmap
+                && state.getColorFilter() == colorFilter) {
+            return;
+        }
+        flush(canvas);
+        antiAlias = state.isAntiAlias();
+        filterBitmap = state.isFilterBitmap();
+        colorFilter = state.getColorFilter();
+        meshPaint.setAntiAlias(antiAlias);
+        meshPaint.setFilterBitmap(filterBitmap);
+        meshPaint.setColorFilter(colorFilter);
+    }
+
+    /**
+     * Add a sprite to the batch. If the texture differs from the one of the batch, the batch is drawn first.
+     *
+     * @param canvas    the canvas
+     * @param bitmap    the texture
+     * @param transform affine transformation from texture to world coordinates (scale x, skew x, translation x,
+     *                  skew y, scale y, translation y)
+     * @param offset    offset of the transformation in the array
+     * @param left      left of the source rectangle
+     * @param top       top of the source rectangle
+     * @param right     right of the source rectangle
+     * @param bottom    bottom of the source rectangle
+     * @param alpha     alpha value between 0 and 255
+     */
+    public void add(Canvas canvas, Bitmap bitmap, float[] transform, int offset,
+                    int left, int top, int right, int bottom, int alpha) {
+        if (bitmap != texture) {
+            flush(canvas);
+            texture = bitmap;
+            shader = shaders.get(bitmap);
+            if (shader == null) {
+                shader = new BitmapShader(bitmap, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+                shaders.put(bitmap, shader);
+            }
+        } else if (count == MAX_SPRITES) {
+            flush(canvas);
+        }
+        if (count * 8 == verts.length) {
+            grow();
+        }
+        float sx = transform[offset];
+        float kx = transform[offset + 1];
+        float tx = transform[offset + 2];
+        float ky = transform[offset + 3];
+        float sy = transform[offset + 4];
+        float ty = transform[offset + 5];
+        float w = right - left;
+        float h = bottom - top;
+
+        int v = count * 8;
+        // corners (0,0), (w,0), (w,h), (0,h) of the source rectangle
+        verts[v] = tx;
+        verts[v + 1] = ty;
+        verts[v + 2] = sx * w + tx;
+        verts[v + 3] = ky * w + ty;
+        verts[v + 4] = sx * w + kx * h + tx;
+        verts[v + 5] = ky * w + sy * h + ty;
+        verts[v + 6] = kx * h + tx;
+        verts[v + 7] = sy * h + ty;
+
+        texs[v] = left;
+        texs[v + 1] = top;
+        texs[v + 2] = right;
+        texs[v + 3] = top;
+        texs[v + 4] = right;
+        texs[v + 5] = bottom;
+        texs[v + 6] = left;
+        texs[v + 7] = bottom;
+
+        int color = (alpha << 24) | OPAQUE_WHITE;
+        int c = count * 4;
+        colors[c] = color;
+        colors[c + 1] = color;
+        colors[c + 2] = color;
+        colors[c + 3] = color;
+        count++;
+    }
+
+    /**
+     * Draw the collected sprites
+     *
+     * @param canvas the canvas
+     */
+    public void flush(Canvas canvas) {
+        if (count == 0) {
+            return;
+        }
+        if (!texture.isRecycled()) {
+            meshPaint.setShader(shader);
+            canvas.drawVertices(Canvas.VertexMode.TRIANGLES, count * 8, verts, 0, texs, 0, colors, 0,
+                    indices, 0, count * 6, meshPaint);
+            meshPaint.setShader(null);
+            drawCallCount++;
+        }
+        count = 0;
+    }
+
+    /**
+     * Number of mesh draw calls since {@link SpriteMeshBatch#begin(Paint)}
+     *
+     * @return draw call count
+     */
+    public int getDrawCallCount() {
+        return drawCallCount;
+    }
+}
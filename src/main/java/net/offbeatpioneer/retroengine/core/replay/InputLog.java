@@ -0,0 +1,36 @@
+package net.offbeatpioneer.retroengine.core.replay;
+
+/**
+ * Constants of the binary format of a recorded session.
+ * <p>
+ * All values are written big-endian ({@link java.io.DataOutputStream}). The log starts with a header:
+ * <pre>
+ * int   magic number "RGIL"
+ * short version
+ * long  engine time in nanoseconds when the recording started
+ * </pre>
+ * followed by records which start with one byte for the type:
+ * <ul>
+ * <li>{@link InputLog#TICK}: {@code long} engine time of the tick in nanoseconds</li>
+ * <li>{@link InputLog#TOUCH}: a {@link android.view.MotionEvent} with all its pointers</li>
+ * <li>{@link InputLog#KEY}: a {@link android.view.KeyEvent}</li>
+ * <li>{@link InputLog#END}: end of the log</li>
+ * </ul>
+ * Input events are written in the order they occurred between two ticks. During the replay they are
+ * dispatched before the logic update of the following tick.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public final class InputLog {
+    static final int MAGIC = 0x5247494C;
+    static final short VERSION = 1;
+
+    public static final int END = 0;
+    public static final int TICK = 1;
+    public static final int TOUCH = 2;
+    public static final int KEY = 3;
+
+    private InputLog() {
+    }
+}
@@ -0,0 +1,185 @@
+package net.offbeatpioneer.retroengine.core.replay;
+
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a log written by the {@link InputRecorder} record by record.
+ * <p>
+ * {@link InputLogReader#next()} reads the next record and returns its type. Afterwards the values
+ * of the record can be retrieved with the getter of the type.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class InputLogReader implements Closeable {
+
+    private final DataInputStream in;
+    private final long startNanos;
+    private long tickNanos;
+    private MotionEvent.PointerProperties[] properties = new MotionEvent.PointerProperties[0];
+    private MotionEvent.PointerCoords[] coords = new MotionEvent.PointerCoords[0];
+    private MotionEvent motionEvent;
+    private KeyEvent keyEvent;
+    private boolean finished = false;
+
+    /**
+     * Create the reader and read the header of the log. The stream is buffered by the reader.
+     *
+     * @param inputStream stream of the log
+     * @throws IOException if the header can't be read or the stream doesn't contain a log
+     */
+    public InputLogReader(InputStream inputStream) throws IOException {
+        in = new DataInputStream(new BufferedInputStream(inputStream));
+        if (in.readInt() != InputLog.MAGIC) {
+            throw new IOException("Not an input log");
+        }
+        short version = in.readShort();
+        if (version != InputLog.VERSION) {
+            throw new IOException("Unsupported version of the input log: " + version);
+        }
+        startNanos = in.readLong();
+    }
+
+    /**
+     * Read the next record
+     *
+     * @return type of the record ({@link InputLog#TICK}, {@link InputLog#TOUCH}, {@link InputLog#KEY})
+     * or {@link InputLog#END} at the end of the log
+     * @throws IOException if the record can't be read
+     */
+    public int next() throws IOException {
+        if (finished) {
+            return InputLog.END;
+        }
+        int type;
+        try {
+            type = in.readByte();
+        } catch (EOFException e) {
+            // the log of a session that wasn't closed properly ends without an end record
+            type = InputLog.END;
+        }
+        switch (type) {
+            case InputLog.TICK:
+                tickNanos = in.readLong();
+                break;
+            case InputLog.TOUCH:
+                readTouchEvent();
+                break;
+            case InputLog.KEY:
+                readKeyEvent();
+                break;
+            case InputLog.END:
+                finished = true;
+                break;
+            default:
+                throw new IOException("Unknown record type: " + type);
+        }
+        return type;
+    }
+
+    private void readTouchEvent() throws IOException {
+        long downTime = in.readLong();
+        long eventTime = in.readLong();
+        int action = in.readInt();
+        int metaState = in.readInt();
+        int buttonState = in.readInt();
+        int source = in.readInt();
+        int deviceId = in.readInt();
+        int edgeFlags = in.readInt();
+        int flags = in.readInt();
+        float xPrecision = in.readFloat();
+        float yPrecision = in.readFloat();
+        int pointerCount = in.readInt();
+        if (pointerCount > properties.length) {
+            properties = new MotionEvent.PointerProperties[pointerCount];
+            coords = new MotionEvent.PointerCoords[pointerCount];
+            for (int i = 0; i < pointerCount; i++) {
+                properties[i] = new MotionEvent.PointerProperties();
+                coords[i] = new MotionEvent.PointerCoords();
+            }
+        }
+        for (int i = 0; i < pointerCount; i++) {
+            properties[i].id = in.readInt();
+            properties[i].toolType = in.readInt();
+            coords[i].x = in.readFloat();
+            coords[i].y = in.readFloat();
+            coords[i].pressure = in.readFloat();
+            coords[i].size = in.readFloat();
+            coords[i].touchMajor = in.readFloat();
+            coords[i].touchMinor = in.readFloat();
+            coords[i].orientation = in.readFloat();
+        }
+        if (motionEvent != null) {
+            motionEvent.recycle();
+        }
+        motionEvent = MotionEvent.obtain(downTime, eventTime, action, pointerCount, properties, coords,
+                metaState, buttonState, xPrecision, yPrecision, deviceId, edgeFlags, source, flags);
+    }
+
+    private void readKeyEvent() throws IOException {
+        long downTime = in.readLong();
+        long eventTime = in.readLong();
+        int action = in.readInt();
+        int keyCode = in.readInt();
+        int repeat = in.readInt();
+        int metaState = in.readInt();
+        int deviceId = in.readInt();
+        int scanCode = in.readInt();
+        int flags = in.readInt();
+        int source = in.readInt();
+        keyEvent = new KeyEvent(downTime, eventTime, action, keyCode, repeat, metaState, deviceId, scanCode, flags, source);
+    }
+
+    /**
+     * Engine time when the recording started
+     *
+     * @return time in nanoseconds
+     */
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    /**
+     * Engine time of the last read tick
+     *
+     * @return time in nanoseconds
+     */
+    public long getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Last read touch event. The event is recycled when the next touch event is read.
+     *
+     * @return the event
+     */
+    public MotionEvent getMotionEvent() {
+        return motionEvent;
+    }
+
+    /**
+     * Last read key event
+     *
+     * @return the event
+     */
+    public KeyEvent getKeyEvent() {
+        return keyEvent;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (motionEvent != null) {
+            motionEvent.recycle();
+            motionEvent = null;
+        }
+        in.close();
+    }
+}
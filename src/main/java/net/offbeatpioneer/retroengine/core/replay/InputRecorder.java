@@ -0,0 +1,186 @@
+package net.offbeatpioneer.retroengine.core.replay;
+
+import android.util.Log;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records the ticks of the game loop and the input events into a compact binary log (see {@link InputLog}).
+ * The log can be replayed with a fixed clock by the {@link net.offbeatpioneer.retroengine.view.HeadlessRenderer},
+ * so the same session can be profiled repeatedly.
+ * <p>
+ * The recorder is activated with {@link RetroEngine#setInputRecorder(InputRecorder)}. Ticks are recorded by
+ * the game loop and input events by the {@link net.offbeatpioneer.retroengine.view.TouchListener}.
+ * Only the current coordinates of a motion event are recorded, not its historical ones.
+ * <p>
+ * If an {@link IOException} occurs the recording is stopped and the exception is available with
+ * {@link InputRecorder#getError()}.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class InputRecorder implements Closeable {
+    private static final String TAG_LOG = "InputRecorder";
+
+    private final DataOutputStream out;
+    private final MotionEvent.PointerCoords coords = new MotionEvent.PointerCoords();
+    private final MotionEvent.PointerProperties properties = new MotionEvent.PointerProperties();
+    private long tickCount = 0;
+    private boolean closed = false;
+    private IOException error;
+
+    /**
+     * Create the recorder and write the header of the log. The stream is buffered by the recorder.
+     *
+     * @param outputStream stream to write the log to
+     * @throws IOException if the header can't be written
+     */
+    public InputRecorder(OutputStream outputStream) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(outputStream));
+        out.writeInt(InputLog.MAGIC);
+        out.writeShort(InputLog.VERSION);
+        out.writeLong(RetroEngine.getNanoTime());
+    }
+
+    /**
+     * Record a tick. Called by the game loop before each logic update.
+     *
+     * @param nanoTime engine time in nanoseconds
+     */
+    public synchronized void recordTick(long nanoTime) {
+        if (closed) {
+            return;
+        }
+        try {
+            out.writeByte(InputLog.TICK);
+            out.writeLong(nanoTime);
+            tickCount++;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Record a touch event
+     *
+     * @param event the event
+     */
+    public synchronized void recordTouchEvent(MotionEvent event) {
+        if (closed) {
+            return;
+        }
+        try {
+            out.writeByte(InputLog.TOUCH);
+            out.writeLong(event.getDownTime());
+            out.writeLong(event.getEventTime());
+            out.writeInt(event.getAction());
+            out.writeInt(event.getMetaState());
+            out.writeInt(event.getButtonState());
+            out.writeInt(event.getSource());
+            out.writeInt(event.getDeviceId());
+            out.writeInt(event.getEdgeFlags());
+            out.writeInt(event.getFlags());
+            out.writeFloat(event.getXPrecision());
+            out.writeFloat(event.getYPrecision());
+            int pointerCount = event.getPointerCount();
+            out.writeInt(pointerCount);
+            for (int i = 0; i < pointerCount; i++) {
+                event.getPointerProperties(i, properties);
+                event.getPointerCoords(i, coords);
+                out.writeInt(properties.id);
+                out.writeInt(properties.toolType);
+                out.writeFloat(coords.x);
+                out.writeFloat(coords.y);
+                out.writeFloat(coords.pressure);
+                out.writeFloat(coords.size);
+                out.writeFloat(coords.touchMajor);
+                out.writeFloat(coords.touchMinor);
+                out.writeFloat(coords.orientation);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Record a key event
+     *
+     * @param event the event
+     */
+    public synchronized void recordKeyEvent(KeyEvent event) {
+        if (closed) {
+            return;
+        }
+        try {
+            out.writeByte(InputLog.KEY);
+            out.writeLong(event.getDownTime());
+            out.writeLong(event.getEventTime());
+            out.writeInt(event.getAction());
+            out.writeInt(event.getKeyCode());
+            out.writeInt(event.getRepeatCount());
+            out.writeInt(event.getMetaState());
+            out.writeInt(event.getDeviceId());
+            out.writeInt(event.getScanCode());
+            out.writeInt(event.getFlags());
+            out.writeInt(event.getSource());
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Write the end of the log and close the stream
+     *
+     * @throws IOException if the stream can't be written or closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (error == null) {
+                out.writeByte(InputLog.END);
+            }
+        } finally {
+            out.close();
+        }
+    }
+
+    private void fail(IOException e) {
+        Log.e(TAG_LOG, "Recording stopped", e);
+        error = e;
+        closed = true;
+        try {
+            out.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Number of recorded ticks
+     *
+     * @return tick count
+     */
+    public synchronized long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * Exception that stopped the recording
+     *
+     * @return the exception or {@code null}
+     */
+    public synchronized IOException getError() {
+        return error;
+    }
+}
@@ -2,6 +2,7 @@ package net.offbeatpioneer.retroengine.core.sprites;
 
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
+import android.graphics.ColorFilter;
 import android.graphics.Matrix;
 import android.graphics.Paint;
 import android.graphics.PointF;
@@ -11,9 +12,15 @@ import android.util.Log;
 
 import net.offbeatpioneer.retroengine.core.RetroEngine;
 import net.offbeatpioneer.retroengine.core.animation.AnimationSuite;
+import net.offbeatpioneer.retroengine.core.render.DirtyRegion;
+import net.offbeatpioneer.retroengine.core.render.RenderCommandBuffer;
+import net.offbeatpioneer.retroengine.core.render.RenderState;
+import net.offbeatpioneer.retroengine.core.render.SharedPaint;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * {@link AbstractSprite} is the base class for sprites
@@ -22,6 +29,11 @@ import java.util.List;
  * @since 2017-01-14
  */
 public abstract class AbstractSprite implements ISprite {
+    // caches for each sprite class whether the draw method is overridden
+    private static final Map<Class<?>, Boolean> customDrawClasses = new HashMap<>();
+    // looked up once per instance, so that record() doesn't touch the synchronized cache in every frame
+    private final boolean customDraw = hasCustomDraw(getClass());
+
     AbstractSprite parentSprite;
     final double bufferZoneFactor = 0.2;
     List<AnimationSuite> animations = new ArrayList<>();
@@ -58,7 +70,10 @@ public abstract class AbstractSprite implements ISprite {
     protected boolean active; // inaktive Sprites werden vom GameManager gel�scht
     protected boolean autoDestroy; // Außerhalb eines Toleranzbereiches wird active = false gesetzt
     protected long starttime = 0;
-    protected Paint paint = new Paint();
+    // own paint for subclasses that draw their texture, only created on demand
+    private Paint paint;
+    // shared attributes for drawing the texture
+    private RenderState renderState = RenderState.DEFAULT;
     float scale = 1.0f;
     private RectF aabbRect;
     //Nicht gleich löschen, sondern nur nicht zeichnen
@@ -67,6 +82,33 @@ public abstract class AbstractSprite implements ISprite {
 
     protected IFrameUpdate frameUpdate = new NoFrameUpdate();
 
+    // state of the last drawn frame for the dirty-rectangle mode
+    final RectF lastDrawBounds = new RectF();
+    boolean lastDrawVisible = false;
+    private final RectF drawBounds = new RectF();
+    private final Matrix boundsMatrix = new Matrix();
+    private Bitmap lastDrawTexture;
+    private int lastDrawFrameNr;
+    private int lastDrawAlpha;
+    private int lastDrawFrameW;
+    private int lastDrawFrameH;
+    private int lastDrawColor;
+    private ColorFilter lastDrawColorFilter;
+    private boolean damageInvalidated = true;
+    // damaged area of removed children of a group
+    private RectF removedDamage;
+    private boolean removedDamageFull = false;
+    // sprites drawn and culled by the last draw or record call, groups sum up the counts of their children
+    private int drawnCount = 0;
+    private int culledCount = 0;
+    // destination of a film strip segment, only created for animated sprites
+    private RectF frameDst;
+    private static final SpriteDrawStatistics drawStatistics = SpriteDrawStatistics.getInstance();
+    // input values of the cached transformation matrix
+    private boolean matrixValid = false;
+    private float matrixX, matrixY, matrixPivotX, matrixPivotY, matrixAngle, matrixScale;
+    private int matrixFrameW, matrixFrameH;
+
     @Override
     public void updateLogic() {
         frameNr = frameUpdate.updateFrame();
@@ -100,11 +142,15 @@ public abstract class AbstractSprite implements ISprite {
      * The surface where the sprite is drawn should be either a {@link net.offbeatpioneer.retroengine.view.DrawView} or a {@link android.view.View} with canvas.
      * <p>
      * If the the sprites property disable is true then the it will not be drawn. It still exists in the
-     * root node of a state. Also, if its not in the clipping area, that means the visible area
-     * of the canvas, it will not be drawn to reduce CPU usage.
+     * root node of a state. Also, if its bounds (including scale and rotation) aren't in the clipping
+     * area, that means the visible area of the canvas, it will not be drawn to reduce CPU usage.
      * <p>
      * The texture of the sprite is drawn via transformation of matrices (Scale, Translate, Rotation) on the surface.
-     * This is a generic drawing function which is working with bitmap textures.
+     * This is a generic drawing function which is working with bitmap textures. If the texture is a film strip,
+     * only the current segment ({@link AbstractSprite#getsRectangle()}) is drawn.
+     * <p>
+     * Sprites without scaling and rotation are drawn directly at their position without a matrix
+     * (see {@link SpriteDrawStatistics}).
      * <p>
      * The method is empty but will stop the execution if the attribute {@code disable} is true.
      *
@@ -113,27 +159,419 @@ public abstract class AbstractSprite implements ISprite {
      */
     public void draw(final Canvas canvas, final long currentTime) {
         //Don't draw the sprite if it's disabled
-        if (disable || canvas.quickReject(getViewportOrigin().x, getViewportOrigin().y, RetroEngine.W + getViewportOrigin().x, RetroEngine.H + getViewportOrigin().y, Canvas.EdgeType.BW)) {
+        if (disable) {
+            setDrawCounts(0, 0);
+            return;
+        }
+        if (isOutsideOfCanvas(canvas)) {
+            setDrawCounts(0, 1);
+            return;
+        }
+        setDrawCounts(1, 0);
+        if (isVectorShape()) {
+            drawVectorTransformed(canvas);
             return;
         }
 
-        pivotPoint.set(
-                getPosition().x + getFrameW() / 2,
-                getPosition().y + getFrameH() / 2);
+        Paint paint = SharedPaint.forCurrentThread().apply(getRenderState());
+
+        if (getScale() == 1f && getAngle() % 360f == 0f) {
+            // fast path, the matrix would only translate the texture
+            drawStatistics.directDraws++;
+            if (hasFrameRect()) {
+                if (frameDst == null) {
+                    frameDst = new RectF();
+                }
+                frameDst.set(position.x, position.y, position.x + sRectangle.width(), position.y + sRectangle.height());
+                canvas.drawBitmap(texture, sRectangle, frameDst, paint);
+            } else {
+                canvas.drawBitmap(texture, position.x, position.y, paint);
+            }
+            return;
+        }
 
-        paint.setAlpha(getAlphaValue());
+        drawStatistics.transformedDraws++;
+        updateTransformationMatrix();
+        if (hasFrameRect()) {
+            if (frameDst == null) {
+                frameDst = new RectF();
+            }
+            frameDst.set(0, 0, sRectangle.width(), sRectangle.height());
+            int saveCount = canvas.save();
+            canvas.concat(transformationMatrix);
+            canvas.drawBitmap(texture, sRectangle, frameDst, paint);
+            canvas.restoreToCount(saveCount);
+        } else {
+            canvas.drawBitmap(texture, transformationMatrix, paint);
+        }
+    }
+
+    private void drawVectorTransformed(Canvas canvas) {
+        int saveCount = canvas.save();
+        if (getScale() == 1f && getAngle() % 360f == 0f) {
+            drawStatistics.directDraws++;
+            canvas.translate(position.x, position.y);
+        } else {
+            drawStatistics.transformedDraws++;
+            updateTransformationMatrix();
+            canvas.concat(transformationMatrix);
+        }
+        drawVector(canvas);
+        canvas.restoreToCount(saveCount);
+    }
+
+    /**
+     * Check if the sprite is drawn with vector operations instead of a texture
+     * (see {@link AbstractSprite#drawVector(Canvas)}). Such sprites are added as deferred command
+     * to a {@link RenderCommandBuffer}.
+     *
+     * @return true, if the sprite draws a shape without texture
+     */
+    protected boolean isVectorShape() {
+        return false;
+    }
+
+    /**
+     * Draw the shape of the sprite with vector operations, e.g. {@link Canvas#drawCircle(float, float, float, Paint)}.
+     * The canvas is already transformed by the position, scale and rotation of the sprite, so the shape is
+     * drawn in local coordinates from (0,0) to ({@code frameW}, {@code frameH}).
+     * <p>
+     * Only called if {@link AbstractSprite#isVectorShape()} returns true.
+     *
+     * @param canvas the canvas
+     */
+    protected void drawVector(Canvas canvas) {
+    }
+
+    /**
+     * Check if the sprite is completely outside of the visible area of the canvas. The bounds of the
+     * sprite ({@link AbstractSprite#getDrawBounds(RectF)}) are tested against the clipping area, so the
+     * translation of the canvas by the viewport is taken into account.
+     *
+     * @param canvas the canvas
+     * @return true, if the sprite isn't visible and doesn't need to be drawn
+     */
+    protected boolean isOutsideOfCanvas(Canvas canvas) {
+        getDrawBounds(drawBounds);
+        return canvas.quickReject(drawBounds, Canvas.EdgeType.AA);
+    }
+
+    /**
+     * Check if the sprite is completely outside of the visible area of the frame that is recorded
+     * into the command buffer (see {@link RenderCommandBuffer#isCulled(RectF)}).
+     *
+     * @param buffer the command buffer
+     * @return true, if the sprite isn't visible and doesn't need to be recorded
+     */
+    protected boolean isOutsideOfBuffer(RenderCommandBuffer buffer) {
+        getDrawBounds(drawBounds);
+        return buffer.isCulled(drawBounds);
+    }
+
+    /**
+     * Set the number of sprites that were drawn and culled by the last draw or record call.
+     * Sprites with an own drawing method should report their counts, otherwise they are counted
+     * as one drawn sprite by their group.
+     *
+     * @param drawn  drawn sprites
+     * @param culled culled sprites
+     */
+    protected void setDrawCounts(int drawn, int culled) {
+        drawnCount = drawn;
+        culledCount = culled;
+    }
+
+    /**
+     * Number of sprites that were drawn by the last draw or record call. For a group this
+     * includes the sprites of all children.
+     *
+     * @return drawn sprites
+     */
+    public int getDrawnCount() {
+        return drawnCount;
+    }
+
+    /**
+     * Number of sprites that were skipped by the last draw or record call, because they were
+     * outside of the visible area. For a group this includes the sprites of all children.
+     *
+     * @return culled sprites
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    /**
+     * Draw a child of a group and add its counts of drawn and culled sprites to the ones of the group
+     *
+     * @param child       the child
+     * @param canvas      the canvas
+     * @param currentTime current time in milliseconds
+     */
+    void drawChild(AbstractSprite child, Canvas canvas, long currentTime) {
+        child.setDrawCounts(child.disable ? 0 : 1, 0);
+        child.draw(canvas, currentTime);
+        drawnCount += child.drawnCount;
+        culledCount += child.culledCount;
+    }
+
+    /**
+     * Record a child of a group and add its counts of drawn and culled sprites to the ones of the group
+     *
+     * @param child  the child
+     * @param buffer the command buffer
+     */
+    void recordChild(AbstractSprite child, RenderCommandBuffer buffer) {
+        child.setDrawCounts(child.disable ? 0 : 1, 0);
+        child.record(buffer);
+        drawnCount += child.drawnCount;
+        culledCount += child.culledCount;
+    }
+
+    /**
+     * Check if only a segment of the texture is drawn, i.e. the texture is a film strip
+     *
+     * @return true, if the source rectangle covers only a part of the texture
+     */
+    protected boolean hasFrameRect() {
+        return sRectangle != null && texture != null && !sRectangle.isEmpty()
+                && (sRectangle.width() != texture.getWidth() || sRectangle.height() != texture.getHeight());
+    }
+
+    /**
+     * Calculate the transformation of the texture (scale, rotation and translation) for the
+     * current frame and store it in {@code transformationMatrix}.
+     * <p>
+     * The matrix is only calculated again if the position, angle, scale or frame size changed
+     * since the last call. Use {@link AbstractSprite#invalidateTransformation()} if the matrix was modified.
+     */
+    protected void updateTransformationMatrix() {
+        PointF p = getPosition();
+        float a = getAngle();
+        float s = getScale();
+        int w = getFrameW();
+        int h = getFrameH();
+        if (matrixValid && position.x == matrixX && position.y == matrixY && p.x == matrixPivotX && p.y == matrixPivotY
+                && a == matrixAngle && s == matrixScale && w == matrixFrameW && h == matrixFrameH) {
+            drawStatistics.matrixReuses++;
+            return;
+        }
+        drawStatistics.matrixUpdates++;
+        matrixValid = true;
+        matrixX = position.x;
+        matrixY = position.y;
+        matrixPivotX = p.x;
+        matrixPivotY = p.y;
+        matrixAngle = a;
+        matrixScale = s;
+        matrixFrameW = w;
+        matrixFrameH = h;
+        pivotPoint.set(
+                p.x + w / 2,
+                p.y + h / 2);
 
 //        Matrix transformationMatrix = new Matrix();
         transformationMatrix.reset();
-        transformationMatrix.postScale(getScale(), getScale(), pivotPoint.x, pivotPoint.y);
-        transformationMatrix.postRotate(getAngle(), pivotPoint.x, pivotPoint.y);
+        transformationMatrix.postScale(s, s, pivotPoint.x, pivotPoint.y);
+        transformationMatrix.postRotate(a, pivotPoint.x, pivotPoint.y);
         transformationMatrix.preTranslate(position.x, position.y);
+    }
 
-        paint.setAntiAlias(true);
-        paint.setFilterBitmap(false);
-        paint.setDither(false);
+    /**
+     * Calculate the transformation matrix again at the next draw call
+     */
+    public void invalidateTransformation() {
+        matrixValid = false;
+    }
 
-        canvas.drawBitmap(texture, transformationMatrix, paint);
+    /**
+     * Record the drawing of this sprite into a command buffer instead of drawing it directly
+     * on the canvas. The result of the replay is the same as of {@link AbstractSprite#draw(Canvas, long)}.
+     * <p>
+     * If a subclass overrides the draw method and not this method, the sprite is recorded as deferred
+     * command and its draw method is called during the replay.
+     *
+     * @param buffer the command buffer
+     */
+    public void record(RenderCommandBuffer buffer) {
+        if (disable) {
+            setDrawCounts(0, 0);
+            return;
+        }
+        if (customDraw) {
+            // the bounds of an own drawing are unknown, the sprite culls itself during the replay
+            setDrawCounts(1, 0);
+            buffer.addDeferred(this);
+            return;
+        }
+        if (texture == null && !isVectorShape()) {
+            setDrawCounts(0, 0);
+            return;
+        }
+        if (isOutsideOfBuffer(buffer)) {
+            setDrawCounts(0, 1);
+            return;
+        }
+        setDrawCounts(1, 0);
+        if (isVectorShape()) {
+            buffer.addDeferred(this);
+            return;
+        }
+        updateTransformationMatrix();
+        buffer.add(texture, hasFrameRect() ? sRectangle : null, transformationMatrix, getRenderState());
+    }
+
+    private static boolean hasCustomDraw(Class<?> spriteClass) {
+        synchronized (customDrawClasses) {
+            Boolean custom = customDrawClasses.get(spriteClass);
+            if (custom == null) {
+                try {
+                    custom = spriteClass.getMethod("draw", Canvas.class, long.class).getDeclaringClass() != AbstractSprite.class
+                            && spriteClass.getMethod("record", RenderCommandBuffer.class).getDeclaringClass() == AbstractSprite.class;
+                } catch (NoSuchMethodException e) {
+                    custom = true;
+                }
+                customDrawClasses.put(spriteClass, custom);
+            }
+            return custom;
+        }
+    }
+
+    /**
+     * Calculate the bounds of the sprite on the drawing surface with respect to its scale and
+     * rotation angle.
+     *
+     * @param out the result in world coordinates
+     */
+    public void getDrawBounds(RectF out) {
+        PointF p = getPosition();
+        out.set(p.x, p.y, p.x + frameW, p.y + frameH);
+        float s = getScale();
+        float a = getAngle() % 360f;
+        if (s != 1f || a != 0f) {
+            float cx = out.centerX();
+            float cy = out.centerY();
+            boundsMatrix.setScale(s, s, cx, cy);
+            boundsMatrix.postRotate(a, cx, cy);
+            boundsMatrix.mapRect(out);
+        }
+    }
+
+    /**
+     * Report the damaged areas for the dirty-rectangle mode of the
+     * {@link net.offbeatpioneer.retroengine.view.RenderThread}.
+     * <p>
+     * The sprite compares its position, size, texture, frame, alpha value, rotation angle, color filter
+     * and the color of {@link Colorable} sprites with the ones of the last reported frame. Sprites
+     * without texture are taken into account if they draw a vector shape ({@link AbstractSprite#isVectorShape()}). If something changed, the old and the new bounds
+     * are added to the region. Changes that can't be detected this way (e.g. a texture that was
+     * modified in place) must be reported with {@link AbstractSprite#invalidate()}.
+     *
+     * @param region the region to add the damaged areas to
+     */
+    public void collectDamage(DirtyRegion region) {
+        boolean visible = !disable && (texture != null || isVectorShape());
+        if (visible) {
+            getDrawBounds(drawBounds);
+        }
+        int color = this instanceof Colorable ? ((Colorable) this).getColor() : 0;
+        ColorFilter colorFilter = getColorFilter();
+        boolean changed = damageInvalidated || visible != lastDrawVisible;
+        if (!changed && visible) {
+            changed = texture != lastDrawTexture || frameNr != lastDrawFrameNr || alphaValue != lastDrawAlpha
+                    || frameW != lastDrawFrameW || frameH != lastDrawFrameH
+                    || color != lastDrawColor || colorFilter != lastDrawColorFilter
+                    || drawBounds.left != lastDrawBounds.left || drawBounds.top != lastDrawBounds.top
+                    || drawBounds.right != lastDrawBounds.right || drawBounds.bottom != lastDrawBounds.bottom;
+        }
+        if (!changed) {
+            return;
+        }
+        if (lastDrawVisible) {
+            region.add(lastDrawBounds);
+        }
+        if (visible) {
+            region.add(drawBounds);
+            lastDrawBounds.set(drawBounds);
+        }
+        lastDrawVisible = visible;
+        lastDrawTexture = texture;
+        lastDrawFrameNr = frameNr;
+        lastDrawAlpha = alphaValue;
+        lastDrawFrameW = frameW;
+        lastDrawFrameH = frameH;
+        lastDrawColor = color;
+        lastDrawColorFilter = colorFilter;
+        damageInvalidated = false;
+    }
+
+    /**
+     * Mark the sprite as changed, so that its area is repainted in the next frame of the
+     * dirty-rectangle mode.
+     */
+    public void invalidate() {
+        damageInvalidated = true;
+    }
+
+    /**
+     * Called by a group for an inactive child which it removed: the last drawn area of the child is
+     * repainted and the child is returned to its pool. If the child is a group, the pooled sprites
+     * inside of it are returned too, because they are dropped together with it.
+     *
+     * @param child the removed child
+     */
+    void releaseRemovedChild(AbstractSprite child) {
+        damageRemovedChild(child);
+        child.returnToPools();
+    }
+
+    /**
+     * Return this sprite to its pool, a group returns its children. Sprites that aren't from a pool are ignored.
+     */
+    void returnToPools() {
+    }
+
+    /**
+     * Remember the last drawn area of a child which is removed from this group
+     *
+     * @param child the removed child
+     */
+    void damageRemovedChild(AbstractSprite child) {
+        if (child.hasChildren()) {
+            removedDamageFull = true;
+        } else if (child.lastDrawVisible) {
+            if (removedDamage == null) {
+                removedDamage = new RectF(child.lastDrawBounds);
+            } else if (removedDamage.isEmpty()) {
+                removedDamage.set(child.lastDrawBounds);
+            } else {
+                removedDamage.union(child.lastDrawBounds);
+            }
+            child.lastDrawVisible = false;
+        }
+    }
+
+    /**
+     * Mark the whole area of removed children as damaged, e.g. if all children of a group are removed
+     */
+    void damageAllRemovedChildren() {
+        removedDamageFull = true;
+    }
+
+    /**
+     * Add the areas of removed children to the region
+     *
+     * @param region the region to add the damaged areas to
+     */
+    void collectRemovedDamage(DirtyRegion region) {
+        if (removedDamageFull) {
+            region.invalidateAll();
+            removedDamageFull = false;
+        }
+        if (removedDamage != null && !removedDamage.isEmpty()) {
+            region.add(removedDamage);
+            removedDamage.setEmpty();
+        }
     }
 
     // Composite ops
@@ -498,9 +936,19 @@ public abstract class AbstractSprite implements ISprite {
         return texture;
     }
 
+    /**
+     * Set the texture. A sprite that isn't a film strip ({@link AbstractSprite#getFrameCnt()} at most 1)
+     * draws the whole new texture, its source rectangle is set to the size of the texture.
+     *
+     * @param texture the texture
+     */
     public void setTexture(final Bitmap texture) {
 //        this.texture.recycle();
         this.texture = texture;
+        if (frameCnt <= 1 && texture != null && sRectangle != null) {
+            // a source rectangle of the previous texture would cut out a stale segment
+            sRectangle.set(0, 0, texture.getWidth(), texture.getHeight());
+        }
     }
 
     public boolean isLoop() {
@@ -591,6 +1039,51 @@ public abstract class AbstractSprite implements ISprite {
         this.starttime = starttime;
     }
 
+    /**
+     * Get the paint of the sprite that can be used to create its texture, e.g. to draw a shape or text
+     * on a bitmap. The paint is created on the first call. It isn't used to draw the texture on the
+     * canvas, see {@link AbstractSprite#getRenderState()}.
+     *
+     * @return own paint of the sprite
+     */
+    protected Paint getPaint() {
+        if (paint == null) {
+            paint = new Paint();
+        }
+        return paint;
+    }
+
+    /**
+     * Get the attributes to draw the texture of the sprite with. The state is interned and shared
+     * with all sprites that have the same alpha value and color filter. The anti-aliasing and
+     * filtering flags of {@link RetroEngine} are taken into account.
+     *
+     * @return the render state of the sprite
+     */
+    public RenderState getRenderState() {
+        RenderState state = renderState;
+        if (state.getAlpha() != alphaValue) {
+            state = state.withAlpha(alphaValue);
+        }
+        state = state.withFlags(RetroEngine.isAntiAlias(), RetroEngine.isFilterBitmap());
+        renderState = state;
+        return state;
+    }
+
+    public ColorFilter getColorFilter() {
+        return renderState.getColorFilter();
+    }
+
+    /**
+     * Set a color filter for the texture of the sprite. Sprites with the same filter should share
+     * the same instance (see {@link RenderState}).
+     *
+     * @param colorFilter the color filter or null
+     */
+    public void setColorFilter(ColorFilter colorFilter) {
+        renderState = renderState.withColorFilter(colorFilter);
+    }
+
     public int getAlphaValue() {
         return alphaValue;
     }
@@ -1,17 +1,15 @@
 package net.offbeatpioneer.retroengine.core.sprites;
 
 import android.graphics.Bitmap;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.PorterDuff;
-import android.graphics.Rect;
 
 import net.offbeatpioneer.retroengine.core.RetroEngine;
 
 /**
  * Frame update function for animated sprites, for sprites that have a film stripe as texture.
- * The original bitmap is clipped. A window will slide over the stripe to select the next segment of it.
- * The {@link AbstractSprite#sRectangle} of the sprite gets updated.
+ * A window will slide over the stripe to select the next segment of it.
+ * The {@link AbstractSprite#sRectangle} of the sprite gets updated, the sprite draws only this
+ * segment of the stripe. No copy of the segment is made, so all sprites with the same stripe share
+ * one bitmap.
  * The init method of {@link AnimatedSprite} has to be called first so that the frame width and height
  * can be set in order to make this frame update work correctly.
  *
@@ -20,20 +18,23 @@ import net.offbeatpioneer.retroengine.core.RetroEngine;
  */
 public class AnimatedFrameUpdate implements IFrameUpdate {
     private AbstractSprite sprite;
-    private Bitmap tempBmp;
-    private Canvas c;
-    private Rect source;
 
     public AnimatedFrameUpdate(AbstractSprite sprite) {
         this.sprite = sprite;
-        tempBmp = Bitmap.createBitmap(sprite.frameW, sprite.frameH, Bitmap.Config.ARGB_8888);
-        c = new Canvas(tempBmp);
-        source = new Rect(0, 0, tempBmp.getWidth(), tempBmp.getHeight());
     }
 
     /**
-     * Update step. If a film strips is available the next part of the stripe is selected and the
-     * texture of the sprite is updated.
+     * Check if this frame update can be reused for a sprite after it was initialised again
+     *
+     * @param sprite the sprite
+     * @return true, if the frame update belongs to the sprite
+     */
+    boolean isCompatible(AbstractSprite sprite) {
+        return this.sprite == sprite;
+    }
+
+    /**
+     * Update step. If a film strips is available the next part of the stripe is selected.
      *
      * @return current position of the film stripe
      */
@@ -58,12 +59,10 @@ public class AnimatedFrameUpdate implements IFrameUpdate {
                 sprite.getsRectangle().top,
                 right,
                 sprite.getsRectangle().bottom);
-        try {
-            tempBmp.recycle();
-            c.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
-            c.drawBitmap(sprite.getBackupTexture(), sprite.getsRectangle(), source, null);
-            sprite.setTexture(tempBmp);
-        } catch (Exception ignored) {
+        // the stripe is the texture, the segment is selected at draw time
+        Bitmap stripe = sprite.getBackupTexture();
+        if (stripe != null) {
+            sprite.setTexture(stripe);
         }
         return sprite.getFrameNr();
     }
@@ -16,6 +16,9 @@ import java.util.ArrayList;
  * A sprite can be animated or a static one.
  * The position, angle (Ausrichtung), size, alpha value can be changed.
  * This includes the bounding box for collision as well.
+ * <p>
+ * Sprites can be reused with a {@link SpritePool}. The init methods don't allocate new objects if
+ * a sprite is initialised again.
  *
  * @author Dominik Grzelak
  */
@@ -23,6 +26,11 @@ public class AnimatedSprite extends AbstractSprite implements ISpriteAnimateable
 
     private IActionEventCallback actionEventCallback = new EmptyAction();
     protected RectF checkBoundsRect;
+    // own vectors, the fields of the sprite may reference shared ones
+    private final PointF ownViewportOrigin = new PointF(0, 0);
+    private final PointF ownSpeed = new PointF(0, 0);
+    SpritePool<?> pool = null;
+    boolean pooled = false;
 
     public AnimatedSprite() {
         disable = false;
@@ -31,7 +39,7 @@ public class AnimatedSprite extends AbstractSprite implements ISpriteAnimateable
         loop = false;
         animations = new ArrayList<>();
         actionEventCallback = new EmptyAction();
-        viewportOrigin = new PointF(0, 0);
+        viewportOrigin = ownViewportOrigin;
 //        frameUpdate = new AnimatedFrameUpdate(this);
         scale = 1f;
         position = new PointF(0, 0);
@@ -49,32 +57,35 @@ public class AnimatedSprite extends AbstractSprite implements ISpriteAnimateable
         this.sRectangle.top = 0;
         this.sRectangle.bottom = frameH;
         this.disable = false;
-        this.frameUpdate = new AnimatedFrameUpdate(this);
+        if (!(frameUpdate instanceof AnimatedFrameUpdate) || !((AnimatedFrameUpdate) frameUpdate).isCompatible(this)) {
+            this.frameUpdate = new AnimatedFrameUpdate(this);
+        }
         this.framePeriod = 1000 / fps;
         this.sRectangle.left = 0;
         this.sRectangle.right = frameW;
         this.frameCnt = frameCount;
 
-        oldPosition = new PointF(pos.x, pos.y);
+        setOldPositionVector(pos);
         position.set(pos.x, pos.y);
         int speedScalar = 5;
-        speed = new PointF(0, 0);
+        speed = ownSpeed;
         speed.x = speedScalar;
         speed.y = -speedScalar;
 
         this.loop = loop;
-        this.viewportOrigin = new PointF(0, 0);
+        ownViewportOrigin.set(0, 0);
+        this.viewportOrigin = ownViewportOrigin;
         cnt = 0;
         frameNr = 0;
         angle = 0;
         active = true;
         autoDestroy = true;
 
-        rect = new RectF(position.x, position.y, position.x + frameW, position.y + frameH);
+        setRectVector();
 //        oldPosition = new PointF(p.x, p.y);
 
-        if (parentSprite != null) {
-            viewportOrigin = parentSprite.getViewportOrigin() != null ? parentSprite.getViewportOrigin() : new PointF(0, 0);
+        if (parentSprite != null && parentSprite.getViewportOrigin() != null) {
+            viewportOrigin = parentSprite.getViewportOrigin();
         }
         if (frameUpdate == null)
             frameUpdate = new AnimatedFrameUpdate(this);
@@ -107,25 +118,75 @@ public class AnimatedSprite extends AbstractSprite implements ISpriteAnimateable
             this.frameH = 0;
         }
 
-        this.viewportOrigin = new PointF(0, 0);
+        ownViewportOrigin.set(0, 0);
+        this.viewportOrigin = ownViewportOrigin;
         this.frameCnt = 1;
         this.frameStep = 1;
+        this.sRectangle.set(0, 0, frameW, frameH);
         this.speed = spd;
-        this.oldPosition = new PointF(pos.x, pos.y);
-        this.position = new PointF(pos.x, pos.y);
+        setOldPositionVector(pos);
+        this.position.set(pos.x, pos.y);
         this.alphaValue = 255;
         this.cnt = 0;
         this.frameNr = 0;
         this.framePeriod = 1000 / 25;
-        this.rect = new RectF(position.x, position.y, position.x + frameW, position.y + frameH);
+        setRectVector();
         this.angle = 0;
         //forceIdleness = false;
         this.active = true;
         this.autoDestroy = true;
-        this.frameUpdate = new NoFrameUpdate();
+        if (!(frameUpdate instanceof NoFrameUpdate)) {
+            this.frameUpdate = new NoFrameUpdate();
+        }
+        return this;
+    }
+
+    /**
+     * Initialisation of a sprite without texture that draws a shape with vector operations
+     * (see {@link AbstractSprite#drawVector(Canvas)}). The speed is set to zero.
+     *
+     * @param position position of the sprite
+     * @param width    width of the shape in pixels
+     * @param height   height of the shape in pixels
+     * @return the initialized sprite
+     */
+    protected AnimatedSprite initWithoutTexture(PointF position, int width, int height) {
+        this.texture = null;
+        this.backupTexture = null;
+        init(null, position);
+        setFrameSize(width, height);
         return this;
     }
 
+    /**
+     * Change the size of a sprite without texture
+     *
+     * @param width  width of the shape in pixels
+     * @param height height of the shape in pixels
+     */
+    protected void setFrameSize(int width, int height) {
+        this.frameW = width;
+        this.frameH = height;
+        this.sRectangle.set(0, 0, frameW, frameH);
+        setRectVector();
+    }
+
+    private void setOldPositionVector(PointF pos) {
+        if (oldPosition == null) {
+            oldPosition = new PointF(pos.x, pos.y);
+        } else {
+            oldPosition.set(pos.x, pos.y);
+        }
+    }
+
+    private void setRectVector() {
+        if (rect == null) {
+            rect = new RectF(position.x, position.y, position.x + frameW, position.y + frameH);
+        } else {
+            rect.set(position.x, position.y, position.x + frameW, position.y + frameH);
+        }
+    }
+
     /**
      * Convenient method for sprites with no texture film stripe.
      * Speed is set to zero.
@@ -135,7 +196,50 @@ public class AnimatedSprite extends AbstractSprite implements ISpriteAnimateable
      * @return the initialized sprite
      */
     public AnimatedSprite init(Bitmap texture, PointF position) {
-        return this.init(texture, position, new PointF(0, 0));
+        ownSpeed.set(0, 0);
+        return this.init(texture, position, ownSpeed);
+    }
+
+    /**
+     * Reset the sprite before it is put back into its {@link SpritePool}. The animations are stopped
+     * and removed, the transformation, alpha value and parent are reset. Subclasses can override this
+     * method to reset their own fields, they must call the method of the super class.
+     */
+    protected void resetForReuse() {
+        stopAnimations();
+        animations.clear();
+        parentSprite = null;
+        scale = 1f;
+        angle = 0;
+        alphaValue = 255;
+        disable = false;
+        active = false;
+        starttime = 0;
+        invalidate();
+    }
+
+    /**
+     * Return the sprite to the pool it was obtained from. Called by the sprite groups when an
+     * inactive sprite is removed. Sprites that aren't from a pool are ignored.
+     */
+    void returnToPool() {
+        if (pool != null) {
+            pool.recycle(this);
+        }
+    }
+
+    @Override
+    void returnToPools() {
+        returnToPool();
+    }
+
+    /**
+     * The pool this sprite was obtained from
+     *
+     * @return the pool or {@code null}
+     */
+    public SpritePool<?> getPool() {
+        return pool;
     }
 
     public void updateLogicTemplate() {
@@ -2,6 +2,8 @@ package net.offbeatpioneer.retroengine.core.sprites;
 
 import android.graphics.*;
 
+import net.offbeatpioneer.retroengine.core.render.DirtyRegion;
+
 import java.util.List;
 
 /**
@@ -26,6 +28,17 @@ public abstract class Decorator extends AnimatedSprite {
         this.sprite = sprite;
     }
 
+    /**
+     * Collect the damaged areas of the decorated sprite and of the decoration
+     *
+     * @param region the region to add the damaged areas to
+     */
+    @Override
+    public void collectDamage(DirtyRegion region) {
+        sprite.collectDamage(region);
+        super.collectDamage(region);
+    }
+
     @Override
     public boolean hasChildren() {
         return sprite.hasChildren();
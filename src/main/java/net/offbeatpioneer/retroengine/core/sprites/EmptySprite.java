@@ -27,6 +27,7 @@ public class EmptySprite extends AnimatedSprite {
             frameW = 0;
             frameH = 0;
         }
+        sRectangle.set(0, 0, frameW, frameH);
         return this;
     }
 
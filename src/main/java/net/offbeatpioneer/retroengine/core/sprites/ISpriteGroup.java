@@ -26,7 +26,7 @@ public interface ISpriteGroup extends ISprite {
     /**
      * Remove all inactive sprites.
      * Sprites that have the attribute active set to {@code false} should be removed
-     * from the group.
+     * from the group. Removed sprites that were obtained from a {@link SpritePool} are returned to it.
      */
     void removeInActive();
 
@@ -0,0 +1,154 @@
+package net.offbeatpioneer.retroengine.core.sprites;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Updates the children of a {@link SpriteListGroup} on a fixed pool of worker threads.
+ * <p>
+ * The children are split into chunks of consecutive sprites. The workers and the calling thread
+ * take the next free chunk from a shared counter until all chunks are processed, so a worker which is
+ * finished early takes over the remaining work of the others. Each chunk is processed by exactly one
+ * thread. Nested groups within a chunk are updated serially by the same thread.
+ * <p>
+ * The pool has one thread less than the number of available processors, because the calling thread
+ * also processes chunks. The threads are daemon threads and are created once.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public final class ParallelSpriteUpdater {
+    private static final int MIN_CHUNK_SIZE = 64;
+    // number of chunks per thread, more chunks balance the load better
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private static ParallelSpriteUpdater instance;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final Worker[] workers;
+
+    // state of the current update
+    private volatile SpriteListGroup group;
+    private volatile List<AbstractSprite> sprites;
+    private volatile int chunkSize;
+    private volatile int chunkCount;
+    private final AtomicInteger nextChunk = new AtomicInteger();
+    private final AtomicInteger pendingWorkers = new AtomicInteger();
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    private volatile Thread caller;
+
+    private ParallelSpriteUpdater(int parallelism) {
+        this.parallelism = parallelism;
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        int poolSize = Math.max(1, parallelism - 1);
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SpriteUpdateThread-" + threadNumber.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        workers = new Worker[poolSize];
+        for (int i = 0; i < poolSize; i++) {
+            workers[i] = new Worker();
+        }
+    }
+
+    public static synchronized ParallelSpriteUpdater getInstance() {
+        if (instance == null) {
+            instance = new ParallelSpriteUpdater(Runtime.getRuntime().availableProcessors());
+        }
+        return instance;
+    }
+
+    /**
+     * Number of threads that update sprites including the calling thread
+     *
+     * @return number of threads
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Update the given children of the group in parallel. Returns after all children are updated.
+     * If the update method of a sprite throws an exception, it is rethrown after all threads are finished.
+     *
+     * @param group    the group
+     * @param children children of the group
+     */
+    synchronized void update(SpriteListGroup group, List<AbstractSprite> children) {
+        int n = children.size();
+        int size = Math.max(MIN_CHUNK_SIZE, n / (parallelism * CHUNKS_PER_THREAD) + 1);
+        this.group = group;
+        this.sprites = children;
+        this.chunkSize = size;
+        this.chunkCount = (n + size - 1) / size;
+        this.caller = Thread.currentThread();
+        error.set(null);
+        nextChunk.set(0);
+
+        int workerCount = Math.min(workers.length, chunkCount - 1);
+        pendingWorkers.set(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            executor.execute(workers[i]);
+        }
+        processChunks();
+        while (pendingWorkers.get() > 0) {
+            LockSupport.park(this);
+        }
+
+        this.group = null;
+        this.sprites = null;
+        this.caller = null;
+        Throwable throwable = error.get();
+        if (throwable instanceof RuntimeException) {
+            throw (RuntimeException) throwable;
+        } else if (throwable instanceof Error) {
+            throw (Error) throwable;
+        } else if (throwable != null) {
+            throw new RuntimeException(throwable);
+        }
+    }
+
+    private void processChunks() {
+        SpriteListGroup group = this.group;
+        List<AbstractSprite> sprites = this.sprites;
+        int n = sprites.size();
+        int chunk;
+        while ((chunk = nextChunk.getAndIncrement()) < chunkCount && error.get() == null) {
+            int from = chunk * chunkSize;
+            int to = Math.min(n, from + chunkSize);
+            try {
+                for (int i = from; i < to; i++) {
+                    group.updateChild(sprites.get(i));
+                }
+            } catch (Throwable t) {
+                error.compareAndSet(null, t);
+            }
+        }
+    }
+
+    private class Worker implements Runnable {
+        @Override
+        public void run() {
+            try {
+                processChunks();
+            } finally {
+                if (pendingWorkers.decrementAndGet() == 0) {
+                    LockSupport.unpark(caller);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,631 @@
+package net.offbeatpioneer.retroengine.core.sprites;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PointF;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.animation.AnimationSuite;
+import net.offbeatpioneer.retroengine.core.render.DirtyRegion;
+import net.offbeatpioneer.retroengine.core.render.RenderCommandBuffer;
+import net.offbeatpioneer.retroengine.core.render.RenderState;
+import net.offbeatpioneer.retroengine.core.render.SharedPaint;
+
+import java.util.Arrays;
+
+/**
+ * Sprite group for a large number of homogeneous sprites, e.g. bullets or particles.
+ * <p>
+ * The sprites aren't objects: position, speed, angle, scale, alpha value, frame and active flag of
+ * each sprite are stored in parallel primitive arrays, so thousands of sprites can be updated and drawn
+ * in tight loops without any allocation. All sprites share one texture, which can be a film strip
+ * with frames of the same width.
+ * <p>
+ * A sprite is created with {@link SpriteBatchGroup#spawn(float, float, float, float)} which returns a
+ * handle. The handle is used to read or change the sprite. Killed sprites are removed at the end of
+ * the update and their handles become invalid ({@link SpriteBatchGroup#isAlive(int)}), so a handle of a
+ * removed sprite can't accidentally access a newly spawned one.
+ * <p>
+ * All methods are thread-safe, sprites can be spawned and changed by their handles from any thread.
+ * The group is locked during the update and the drawing, so a change is never seen half-way by them.
+ * <p>
+ * The frames of the film strip are advanced every {@link AbstractSprite#getFramePeriod()} milliseconds,
+ * if the group doesn't loop ({@link AbstractSprite#setLoop(boolean)}) a sprite is killed after the last frame.
+ * <p>
+ * The group itself doesn't report children ({@link AbstractSprite#hasChildren()}), so parent groups
+ * update and draw it like a single sprite.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class SpriteBatchGroup extends AbstractSprite implements ISpriteGroup {
+    /**
+     * Value for an invalid handle
+     */
+    public static final int INVALID_HANDLE = -1;
+    private static final int INDEX_BITS = 20;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    private static final int GENERATION_MASK = 0x7FF;
+
+    private final Object lock = new Object();
+    private final int frameCount;
+    private final Rect src = new Rect();
+    private final RectF dst = new RectF();
+    private final Matrix matrix = new Matrix();
+    private final RectF bounds = new RectF();
+    private final RectF lastBounds = new RectF();
+    private RectF killBounds = null;
+
+    // dense arrays, index is the slot of the sprite
+    private int count = 0;
+    private int[] ids;
+    private float[] x;
+    private float[] y;
+    private float[] speedX;
+    private float[] speedY;
+    private float[] angles;
+    private float[] scales;
+    private int[] alphas;
+    private int[] frames;
+    private long[] frameStarts;
+    private boolean[] alive;
+
+    // sparse arrays, index is the id of a handle
+    private int idCount = 0;
+    private int[] slots;
+    private int[] generations;
+    private int[] freeIds;
+    private int freeCount = 0;
+
+    /**
+     * Constructor for a texture with a single frame
+     *
+     * @param texture texture of all sprites
+     */
+    public SpriteBatchGroup(Bitmap texture) {
+        this(texture, 1, 256);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param texture    texture of all sprites, a film strip if the frame count is greater than 1
+     * @param frameCount number of frames of the film strip
+     * @param capacity   initial number of sprites
+     */
+    public SpriteBatchGroup(Bitmap texture, int frameCount, int capacity) {
+        if (texture == null) {
+            throw new IllegalArgumentException("The texture must not be null");
+        }
+        if (frameCount < 1) {
+            throw new IllegalArgumentException("The frame count must be positive");
+        }
+        this.texture = texture;
+        this.frameCount = frameCount;
+        this.frameCnt = frameCount;
+        this.frameW = texture.getWidth() / frameCount;
+        this.frameH = texture.getHeight();
+        active = true;
+        loop = true;
+        position = new PointF(0, 0);
+        speed = new PointF(0, 0);
+        capacity = Math.max(16, capacity);
+        allocate(capacity);
+        slots = new int[capacity];
+        generations = new int[capacity];
+        freeIds = new int[capacity];
+    }
+
+    private void allocate(int capacity) {
+        ids = new int[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        speedX = new float[capacity];
+        speedY = new float[capacity];
+        angles = new float[capacity];
+        scales = new float[capacity];
+        alphas = new int[capacity];
+        frames = new int[capacity];
+        frameStarts = new long[capacity];
+        alive = new boolean[capacity];
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        speedX = Arrays.copyOf(speedX, capacity);
+        speedY = Arrays.copyOf(speedY, capacity);
+        angles = Arrays.copyOf(angles, capacity);
+        scales = Arrays.copyOf(scales, capacity);
+        alphas = Arrays.copyOf(alphas, capacity);
+        frames = Arrays.copyOf(frames, capacity);
+        frameStarts = Arrays.copyOf(frameStarts, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+    }
+
+    /**
+     * Create a new sprite
+     *
+     * @param px position x
+     * @param py position y
+     * @param sx speed in x direction per tick
+     * @param sy speed in y direction per tick
+     * @return handle of the sprite
+     */
+    public int spawn(float px, float py, float sx, float sy) {
+        synchronized (lock) {
+            int id;
+            if (freeCount > 0) {
+                id = freeIds[--freeCount];
+            } else {
+                if (idCount > INDEX_MASK) {
+                    throw new IllegalStateException("Maximum number of sprites reached: " + (INDEX_MASK + 1));
+                }
+                if (idCount == slots.length) {
+                    slots = Arrays.copyOf(slots, idCount * 2);
+                    generations = Arrays.copyOf(generations, idCount * 2);
+                    freeIds = Arrays.copyOf(freeIds, idCount * 2);
+                }
+                id = idCount++;
+            }
+            if (count == ids.length) {
+                grow();
+            }
+            int i = count++;
+            ids[i] = id;
+            x[i] = px;
+            y[i] = py;
+            speedX[i] = sx;
+            speedY[i] = sy;
+            angles[i] = 0;
+            scales[i] = 1f;
+            alphas[i] = 255;
+            frames[i] = 0;
+            frameStarts[i] = RetroEngine.getTickCount();
+            alive[i] = true;
+            slots[id] = i;
+            return (generations[id] << INDEX_BITS) | id;
+        }
+    }
+
+    /**
+     * Add a sprite to the batch. Only the position, speed, angle, scale, alpha value and frame of the
+     * sprite are copied, the sprite object itself isn't kept. It must use the texture of this group.
+     *
+     * @param child the sprite to add
+     */
+    @Override
+    public void add(AbstractSprite child) {
+        if (child == null) return;
+        if (child.getTexture() != texture && child.getBackupTexture() != texture) {
+            throw new IllegalArgumentException("The sprite doesn't use the texture of the batch");
+        }
+        PointF p = child.getPosition();
+        PointF s = child.getSpeed();
+        // the sprite is drawn with all its attributes or not at all
+        synchronized (lock) {
+            int handle = spawn(p.x, p.y, s == null ? 0 : s.x, s == null ? 0 : s.y);
+            setAngle(handle, child.getAngle());
+            setScale(handle, child.getScale());
+            setAlpha(handle, child.getAlphaValue());
+            setFrame(handle, child.getFrameNr());
+        }
+    }
+
+    /**
+     * Get the slot of a sprite
+     *
+     * @param handle handle of the sprite
+     * @return the slot or -1 if the handle is invalid
+     */
+    private int slotOf(int handle) {
+        if (handle < 0) return -1;
+        int id = handle & INDEX_MASK;
+        if (id >= idCount || (handle >>> INDEX_BITS) != generations[id]) {
+            return -1;
+        }
+        return slots[id];
+    }
+
+    private int checkedSlot(int handle) {
+        int slot = slotOf(handle);
+        if (slot < 0) {
+            throw new IllegalArgumentException("Invalid sprite handle: " + handle);
+        }
+        return slot;
+    }
+
+    /**
+     * Check if the sprite of the handle exists and wasn't killed
+     *
+     * @param handle handle of the sprite
+     * @return true, if the sprite is alive
+     */
+    public boolean isAlive(int handle) {
+        synchronized (lock) {
+            int slot = slotOf(handle);
+            return slot >= 0 && alive[slot];
+        }
+    }
+
+    /**
+     * Deactivate a sprite. It is removed at the end of the next update.
+     *
+     * @param handle handle of the sprite
+     */
+    public void kill(int handle) {
+        synchronized (lock) {
+            int slot = slotOf(handle);
+            if (slot >= 0) {
+                alive[slot] = false;
+            }
+        }
+    }
+
+    public float getX(int handle) {
+        synchronized (lock) {
+            return x[checkedSlot(handle)];
+        }
+    }
+
+    public float getY(int handle) {
+        synchronized (lock) {
+            return y[checkedSlot(handle)];
+        }
+    }
+
+    public void setPosition(int handle, float px, float py) {
+        synchronized (lock) {
+            int slot = checkedSlot(handle);
+            x[slot] = px;
+            y[slot] = py;
+        }
+    }
+
+    public float getSpeedX(int handle) {
+        synchronized (lock) {
+            return speedX[checkedSlot(handle)];
+        }
+    }
+
+    public float getSpeedY(int handle) {
+        synchronized (lock) {
+            return speedY[checkedSlot(handle)];
+        }
+    }
+
+    public void setSpeed(int handle, float sx, float sy) {
+        synchronized (lock) {
+            int slot = checkedSlot(handle);
+            speedX[slot] = sx;
+            speedY[slot] = sy;
+        }
+    }
+
+    public float getAngle(int handle) {
+        synchronized (lock) {
+            return angles[checkedSlot(handle)];
+        }
+    }
+
+    public void setAngle(int handle, float angle) {
+        synchronized (lock) {
+            angles[checkedSlot(handle)] = angle;
+        }
+    }
+
+    public float getScale(int handle) {
+        synchronized (lock) {
+            return scales[checkedSlot(handle)];
+        }
+    }
+
+    public void setScale(int handle, float scale) {
+        synchronized (lock) {
+            scales[checkedSlot(handle)] = scale;
+        }
+    }
+
+    public int getAlpha(int handle) {
+        synchronized (lock) {
+            return alphas[checkedSlot(handle)];
+        }
+    }
+
+    public void setAlpha(int handle, int alpha) {
+        synchronized (lock) {
+            alphas[checkedSlot(handle)] = Math.max(0, Math.min(255, alpha));
+        }
+    }
+
+    public int getFrame(int handle) {
+        synchronized (lock) {
+            return frames[checkedSlot(handle)];
+        }
+    }
+
+    public void setFrame(int handle, int frame) {
+        synchronized (lock) {
+            frames[checkedSlot(handle)] = Math.max(0, Math.min(frameCount - 1, frame));
+        }
+    }
+
+    /**
+     * Move all sprites by their speed and advance their frames. Killed sprites and sprites outside of
+     * the kill bounds are removed afterwards.
+     */
+    @Override
+    public void updateLogic() {
+        synchronized (lock) {
+            long now = RetroEngine.getTickCount();
+            int framePeriod = this.framePeriod;
+            boolean animated = frameCount > 1 && framePeriod > 0;
+            RectF killBounds = this.killBounds;
+            for (int i = 0; i < count; i++) {
+                if (!alive[i]) continue;
+                x[i] += speedX[i];
+                y[i] += speedY[i];
+                if (animated && now > frameStarts[i] + framePeriod) {
+                    frameStarts[i] = now;
+                    if (++frames[i] >= frameCount) {
+                        frames[i] = 0;
+                        if (!loop) alive[i] = false;
+                    }
+                }
+                if (killBounds != null && (x[i] + frameW < killBounds.left || x[i] > killBounds.right
+                        || y[i] + frameH < killBounds.top || y[i] > killBounds.bottom)) {
+                    alive[i] = false;
+                }
+            }
+            removeDead();
+        }
+        updateLogicTemplate();
+    }
+
+    /**
+     * Update the animations of the group itself
+     */
+    @Override
+    public void updateLogicTemplate() {
+        for (int i = 0, n = animations.size(); i < n; i++) {
+            AnimationSuite animation = animations.get(i);
+            animation.animationLogic();
+        }
+    }
+
+    /**
+     * Remove all killed sprites. This is also done at the end of each update.
+     */
+    @Override
+    public void removeInActive() {
+        synchronized (lock) {
+            removeDead();
+        }
+    }
+
+    private void removeDead() {
+        for (int i = count - 1; i >= 0; i--) {
+            if (alive[i]) continue;
+            int id = ids[i];
+            generations[id] = (generations[id] + 1) & GENERATION_MASK;
+            slots[id] = -1;
+            freeIds[freeCount++] = id;
+            int last = --count;
+            if (i != last) {
+                moveSlot(last, i);
+            }
+        }
+    }
+
+    private void moveSlot(int from, int to) {
+        ids[to] = ids[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        speedX[to] = speedX[from];
+        speedY[to] = speedY[from];
+        angles[to] = angles[from];
+        scales[to] = scales[from];
+        alphas[to] = alphas[from];
+        frames[to] = frames[from];
+        frameStarts[to] = frameStarts[from];
+        alive[to] = alive[from];
+        slots[ids[to]] = to;
+    }
+
+    @Override
+    public void draw(Canvas canvas, long currentTime) {
+        setDrawCounts(0, 0);
+        if (disable) {
+            return;
+        }
+        SharedPaint sharedPaint = SharedPaint.forCurrentThread();
+        RenderState state = getRenderState();
+        float halfW = frameW / 2f;
+        float halfH = frameH / 2f;
+        // radius of the frame, covers every rotation
+        float radius = (float) Math.sqrt(halfW * halfW + halfH * halfH);
+        synchronized (lock) {
+            int drawn = 0;
+            int culled = 0;
+            for (int i = 0; i < count; i++) {
+                if (!alive[i]) continue;
+                float cx = x[i] + halfW;
+                float cy = y[i] + halfH;
+                float s = scales[i];
+                float r = radius * s;
+                if (canvas.quickReject(cx - r, cy - r, cx + r, cy + r, Canvas.EdgeType.AA)) {
+                    culled++;
+                    continue;
+                }
+                drawn++;
+                int left = frames[i] * frameW;
+                src.set(left, 0, left + frameW, frameH);
+                dst.set(x[i], y[i], x[i] + frameW, y[i] + frameH);
+                Paint paint = sharedPaint.apply(state.withAlpha(alphas[i]));
+                float a = angles[i];
+                if (a == 0 && s == 1f) {
+                    canvas.drawBitmap(texture, src, dst, paint);
+                } else {
+                    int saveCount = canvas.save();
+                    canvas.rotate(a, cx, cy);
+                    canvas.scale(s, s, cx, cy);
+                    canvas.drawBitmap(texture, src, dst, paint);
+                    canvas.restoreToCount(saveCount);
+                }
+            }
+            setDrawCounts(drawn, culled);
+        }
+    }
+
+    /**
+     * Record all sprites in the same order as {@link SpriteBatchGroup#draw(Canvas, long)}
+     *
+     * @param buffer the command buffer
+     */
+    @Override
+    public void record(RenderCommandBuffer buffer) {
+        setDrawCounts(0, 0);
+        if (disable) {
+            return;
+        }
+        float halfW = frameW / 2f;
+        float halfH = frameH / 2f;
+        float radius = (float) Math.sqrt(halfW * halfW + halfH * halfH);
+        RenderState state = getRenderState();
+        synchronized (lock) {
+            int drawn = 0;
+            int culled = 0;
+            for (int i = 0; i < count; i++) {
+                if (!alive[i]) continue;
+                float cx = x[i] + halfW;
+                float cy = y[i] + halfH;
+                float r = radius * scales[i];
+                if (buffer.isCulled(cx - r, cy - r, cx + r, cy + r)) {
+                    culled++;
+                    continue;
+                }
+                drawn++;
+                matrix.setScale(scales[i], scales[i], cx, cy);
+                matrix.postRotate(angles[i], cx, cy);
+                matrix.preTranslate(x[i], y[i]);
+                if (frameCount > 1) {
+                    int left = frames[i] * frameW;
+                    src.set(left, 0, left + frameW, frameH);
+                    buffer.add(texture, src, matrix, state.withAlpha(alphas[i]));
+                } else {
+                    buffer.add(texture, null, matrix, state.withAlpha(alphas[i]));
+                }
+            }
+            setDrawCounts(drawn, culled);
+        }
+    }
+
+    /**
+     * Report the bounds of all sprites of the last and the current frame as damaged
+     *
+     * @param region the region to add the damaged areas to
+     */
+    @Override
+    public void collectDamage(DirtyRegion region) {
+        boolean visible = !disable;
+        if (visible != lastDrawVisible) {
+            region.invalidateAll();
+            lastDrawVisible = visible;
+        }
+        float halfW = frameW / 2f;
+        float halfH = frameH / 2f;
+        float radius = (float) Math.sqrt(halfW * halfW + halfH * halfH);
+        bounds.setEmpty();
+        if (visible) {
+            synchronized (lock) {
+                for (int i = 0; i < count; i++) {
+                    if (!alive[i]) continue;
+                    float cx = x[i] + halfW;
+                    float cy = y[i] + halfH;
+                    float r = radius * scales[i];
+                    bounds.union(cx - r, cy - r, cx + r, cy + r);
+                }
+            }
+        }
+        if (!lastBounds.isEmpty()) {
+            region.add(lastBounds);
+        }
+        if (!bounds.isEmpty()) {
+            region.add(bounds);
+        }
+        lastBounds.set(bounds);
+    }
+
+    /**
+     * Set the area in which the sprites live. Sprites that leave it completely are removed.
+     * The rectangle is copied, later changes of it have no effect.
+     *
+     * @param killBounds area in world coordinates or {@code null} to keep the sprites everywhere
+     */
+    public void setKillBounds(RectF killBounds) {
+        synchronized (lock) {
+            if (killBounds == null) {
+                this.killBounds = null;
+            } else if (this.killBounds == null) {
+                this.killBounds = new RectF(killBounds);
+            } else {
+                this.killBounds.set(killBounds);
+            }
+        }
+    }
+
+    /**
+     * Get the area in which the sprites live
+     *
+     * @return a copy of the area or {@code null} if the sprites aren't removed outside of an area
+     */
+    public RectF getKillBounds() {
+        synchronized (lock) {
+            return killBounds == null ? null : new RectF(killBounds);
+        }
+    }
+
+    @Override
+    public boolean isRoot() {
+        return getParent() == null;
+    }
+
+    /**
+     * Number of sprites in the batch, including killed sprites that aren't removed yet
+     *
+     * @return number of sprites
+     */
+    @Override
+    public int getChildrenSize() {
+        synchronized (lock) {
+            return count;
+        }
+    }
+
+    /**
+     * Current capacity of the arrays
+     *
+     * @return number of sprites that can be held without growing
+     */
+    public int getCapacity() {
+        synchronized (lock) {
+            return ids.length;
+        }
+    }
+
+    @Override
+    public void clearSprites() {
+        synchronized (lock) {
+            for (int i = 0; i < count; i++) {
+                alive[i] = false;
+            }
+            removeDead();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package net.offbeatpioneer.retroengine.core.sprites;
+
+/**
+ * Counts how the sprites are drawn by {@link AbstractSprite#draw(android.graphics.Canvas, long)}.
+ * This class is implemented as singleton.
+ * <p>
+ * Sprites without scaling and rotation are drawn directly at their position, all others need a
+ * transformation matrix. The matrix of a sprite is cached and only calculated again if its position,
+ * angle, scale or frame size changed.
+ * <p>
+ * The counters are updated by the drawing thread without synchronisation, they are meant for
+ * profiling and can be reset at any time, e.g. once per frame.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class SpriteDrawStatistics {
+
+    private static SpriteDrawStatistics instance = null;
+
+    long directDraws = 0;
+    long transformedDraws = 0;
+    long matrixUpdates = 0;
+    long matrixReuses = 0;
+
+    public static synchronized SpriteDrawStatistics getInstance() {
+        if (instance == null)
+            instance = new SpriteDrawStatistics();
+        return instance;
+    }
+
+    private SpriteDrawStatistics() {
+    }
+
+    /**
+     * Number of sprites drawn directly at their position without a matrix
+     *
+     * @return count since the last reset
+     */
+    public long getDirectDraws() {
+        return directDraws;
+    }
+
+    /**
+     * Number of sprites drawn with a transformation matrix
+     *
+     * @return count since the last reset
+     */
+    public long getTransformedDraws() {
+        return transformedDraws;
+    }
+
+    /**
+     * Number of times the transformation matrix of a sprite was calculated
+     *
+     * @return count since the last reset
+     */
+    public long getMatrixUpdates() {
+        return matrixUpdates;
+    }
+
+    /**
+     * Number of times the cached transformation matrix of a sprite was reused
+     *
+     * @return count since the last reset
+     */
+    public long getMatrixReuses() {
+        return matrixReuses;
+    }
+
+    public void reset() {
+        directDraws = 0;
+        transformedDraws = 0;
+        matrixUpdates = 0;
+        matrixReuses = 0;
+    }
+}
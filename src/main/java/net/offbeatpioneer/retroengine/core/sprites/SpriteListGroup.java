@@ -5,6 +5,8 @@ import android.graphics.PointF;
 import android.graphics.RectF;
 
 import net.offbeatpioneer.retroengine.core.animation.AnimationSuite;
+import net.offbeatpioneer.retroengine.core.render.DirtyRegion;
+import net.offbeatpioneer.retroengine.core.render.RenderCommandBuffer;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -18,12 +20,21 @@ import java.util.List;
  * It is also used as the root node of a {@link net.offbeatpioneer.retroengine.core.states.State}.
  * Its sufficient to set the viewport in a state only once for the root node. All child nodes should
  * access this value by the appropriate parent method.
+ * <p>
+ * The children of large groups can be updated in parallel, see {@link SpriteListGroup#setParallelUpdate(boolean)}.
  *
  * @author Dominik Grzelak
  * @since 26.01.2015
  */
 public class SpriteListGroup extends IterableSpriteGroup<AbstractSprite> {
+    /**
+     * Default minimum number of children for a parallel update
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1024;
+
     private final List<AbstractSprite> children = new ArrayList<>();
+    private boolean parallelUpdate = false;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
 
     public SpriteListGroup() {
         active = true;
@@ -33,19 +44,58 @@ public class SpriteListGroup extends IterableSpriteGroup<AbstractSprite> {
 
     @Override
     public void draw(Canvas canvas, long currentTime) {
+        setDrawCounts(0, 0);
+        if (disable) {
+            return;
+        }
         final List<AbstractSprite> childs = getChildren();
         synchronized (this.children) {
-            draw(childs, canvas, currentTime);
+            for (int i = 0, n = childs.size(); i < n; i++) {
+                drawChild(childs.get(i), canvas, currentTime);
+            }
         }
     }
 
-    private void draw(final List<AbstractSprite> childs, Canvas canvas, long currentTime) {
-        for (int i = 0, n = childs.size(); i < n; i++) {
-            AbstractSprite child = childs.get(i);
-            if (child.hasChildren()) {
-                draw(((SpriteListGroup) child).getChildren(), canvas, currentTime); //safe case because only groups have children
-            } else {
-                child.draw(canvas, currentTime);
+    /**
+     * Collect the damaged areas of all children and of the removed children.
+     * If the group is disabled or enabled again the whole surface is damaged.
+     *
+     * @param region the region to add the damaged areas to
+     */
+    @Override
+    public void collectDamage(DirtyRegion region) {
+        boolean visible = !disable;
+        if (visible != lastDrawVisible) {
+            region.invalidateAll();
+            lastDrawVisible = visible;
+        }
+        collectRemovedDamage(region);
+        if (!visible) {
+            return;
+        }
+        final List<AbstractSprite> childs = getChildren();
+        synchronized (this.children) {
+            for (int i = 0, n = childs.size(); i < n; i++) {
+                childs.get(i).collectDamage(region);
+            }
+        }
+    }
+
+    /**
+     * Record the drawing of all children in the same order as {@link SpriteListGroup#draw(Canvas, long)}
+     *
+     * @param buffer the command buffer
+     */
+    @Override
+    public void record(RenderCommandBuffer buffer) {
+        setDrawCounts(0, 0);
+        if (disable) {
+            return;
+        }
+        final List<AbstractSprite> childs = getChildren();
+        synchronized (this.children) {
+            for (int i = 0, n = childs.size(); i < n; i++) {
+                recordChild(childs.get(i), buffer);
             }
         }
     }
@@ -64,22 +114,38 @@ public class SpriteListGroup extends IterableSpriteGroup<AbstractSprite> {
             if (eachSprite.hasChildren()) {
                 if (!eachSprite.isActive()) {
                     children.remove(i);
+                    releaseRemovedChild(eachSprite);
                 } else {
                     removeInActive(((SpriteListGroup) eachSprite).getChildren()); //safe case because only groups have children
                 }
             } else {
                 if (!eachSprite.isActive()) {
                     children.remove(i);
+                    releaseRemovedChild(eachSprite);
                 }
             }
         }
     }
 
+    @Override
+    void returnToPools() {
+        final List<AbstractSprite> childs = getChildren();
+        synchronized (this.children) {
+            for (int i = 0, n = childs.size(); i < n; i++) {
+                childs.get(i).returnToPools();
+            }
+        }
+    }
+
     @Override
     public void updateLogic() {
         final List<AbstractSprite> childs = getChildren();
         synchronized (this.children) {
-            update(childs);
+            if (parallelUpdate && childs.size() >= parallelThreshold) {
+                ParallelSpriteUpdater.getInstance().update(this, childs);
+            } else {
+                update(childs);
+            }
         }
     }
 
@@ -110,20 +176,66 @@ public class SpriteListGroup extends IterableSpriteGroup<AbstractSprite> {
 
     protected void update(final List<AbstractSprite> childs) {
         for (int i = childs.size() - 1; i >= 0; i--) {
-            AbstractSprite each = childs.get(i);
-            if (each.hasChildren() && each.isActive()) {
-                each.updateLogicTemplate();
-                update(((SpriteListGroup) each).getChildren()); //safe case because only groups have children
-            } else {
-                if (each.isActive()) {
-                    each.updateLogic();
-                } else {
-//                    childs.remove(i); //each.remove(i);
-                }
+            updateChild(childs.get(i));
+        }
+    }
+
+    /**
+     * Update a single child. Nested groups are updated serially.
+     *
+     * @param each the child
+     */
+    void updateChild(AbstractSprite each) {
+        if (each.hasChildren() && each.isActive()) {
+            each.updateLogicTemplate();
+            update(((SpriteListGroup) each).getChildren()); //safe case because only groups have children
+        } else {
+            if (each.isActive()) {
+                each.updateLogic();
             }
         }
     }
 
+    public boolean isParallelUpdate() {
+        return parallelUpdate;
+    }
+
+    /**
+     * Update the children of this group in parallel on the worker threads of the {@link ParallelSpriteUpdater}
+     * if the group has at least {@link SpriteListGroup#getParallelThreshold()} children. Smaller groups are
+     * updated serially, because the coordination of the threads costs more than it saves.
+     * <p>
+     * The children are updated in an undefined order and several children at the same time. Therefore
+     * the {@code updateLogic} method of the sprites (including their animations and frame updates) must
+     * only modify the sprite itself. It is not allowed to:
+     * <ul>
+     * <li>modify other sprites or read their position or state which is modified in the same update</li>
+     * <li>add or remove sprites to or from a group (set {@code active} to {@code false} instead)</li>
+     * <li>change the state, play sounds or access other shared objects that are not thread-safe</li>
+     * </ul>
+     * Reading shared values that don't change during the update (e.g. {@link net.offbeatpioneer.retroengine.core.RetroEngine#getTickCount()})
+     * is safe. Interactions between sprites like collision checks should be done in the {@code updateLogic}
+     * method of the state after the sprites are updated.
+     *
+     * @param parallelUpdate true, to update large groups in parallel
+     */
+    public void setParallelUpdate(boolean parallelUpdate) {
+        this.parallelUpdate = parallelUpdate;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Set the minimum number of children for a parallel update
+     *
+     * @param parallelThreshold number of children
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+    }
+
     public void add(AbstractSprite child) {
         add(child, -1);
     }
@@ -165,12 +277,14 @@ public class SpriteListGroup extends IterableSpriteGroup<AbstractSprite> {
         synchronized (this.children) {
             this.children.clear();
             this.children.addAll(children);
+            damageAllRemovedChildren();
         }
     }
 
     public void clearSprites() {
         synchronized (children) {
             children.clear();
+            damageAllRemovedChildren();
         }
     }
 
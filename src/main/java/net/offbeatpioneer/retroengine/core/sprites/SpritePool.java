@@ -0,0 +1,176 @@
+package net.offbeatpioneer.retroengine.core.sprites;
+
+import java.util.Arrays;
+
+/**
+ * Typed pool for sprites that are created and discarded frequently, e.g. bullets or explosions.
+ * <p>
+ * A sprite is taken from the pool with {@link SpritePool#obtain()} and initialised with one of its
+ * init methods ({@link AnimatedSprite#init(android.graphics.Bitmap, android.graphics.PointF, android.graphics.PointF)},
+ * {@link AnimatedSprite#initAsAnimation(android.graphics.Bitmap, int, int, int, int, android.graphics.PointF, boolean)}).
+ * When the sprite becomes inactive, the sprite group removes it (in {@link ISpriteGroup#removeInActive()} or
+ * during the update) and returns it to the pool automatically. The sprites of an inactive group that is removed
+ * are returned as well. So no garbage is produced after the pool is warmed up.
+ * <p>
+ * The game must not keep references to a sprite after it was set inactive, because it will be
+ * handed out again.
+ * <p>
+ * The number of requests that were served from the pool (hits) and that needed a new sprite (misses)
+ * are counted.
+ *
+ * @param <T> type of the sprites
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class SpritePool<T extends AnimatedSprite> {
+
+    /**
+     * Creates the sprites of a pool
+     *
+     * @param <T> type of the sprites
+     */
+    public interface SpriteFactory<T extends AnimatedSprite> {
+        T create();
+    }
+
+    private final SpriteFactory<T> factory;
+    private final int maxSize;
+    private AnimatedSprite[] free;
+    private int size = 0;
+    private long hitCount = 0;
+    private long missCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param factory creates new sprites if the pool is empty
+     * @param maxSize maximum number of sprites kept in the pool, further sprites are left to the garbage collector
+     */
+    public SpritePool(SpriteFactory<T> factory, int maxSize) {
+        if (factory == null) {
+            throw new IllegalArgumentException("The factory must not be null");
+        }
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive");
+        }
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.free = new AnimatedSprite[Math.min(maxSize, 16)];
+    }
+
+    /**
+     * Create sprites in advance, e.g. while the state is initialised
+     *
+     * @param count number of sprites to create, limited by the maximum size
+     */
+    public synchronized void prefill(int count) {
+        count = Math.min(count, maxSize);
+        while (size < count) {
+            T sprite = factory.create();
+            sprite.pool = this;
+            sprite.pooled = true;
+            push(sprite);
+        }
+    }
+
+    /**
+     * Get a sprite from the pool or a new one if the pool is empty. The sprite must be initialised
+     * before it is added to a group.
+     *
+     * @return the sprite
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized T obtain() {
+        T sprite;
+        if (size > 0) {
+            sprite = (T) free[--size];
+            free[size] = null;
+            hitCount++;
+        } else {
+            sprite = factory.create();
+            missCount++;
+        }
+        sprite.pool = this;
+        sprite.pooled = false;
+        return sprite;
+    }
+
+    /**
+     * Put a sprite back into the pool. This is done by the sprite groups for inactive sprites, so it
+     * is only needed for sprites that were never added to a group. The sprite is reset
+     * ({@link AnimatedSprite#resetForReuse()}).
+     *
+     * @param sprite a sprite of this pool
+     */
+    public synchronized void recycle(AnimatedSprite sprite) {
+        if (sprite.pool != this) {
+            throw new IllegalArgumentException("The sprite doesn't belong to this pool");
+        }
+        if (sprite.pooled) {
+            return;
+        }
+        sprite.resetForReuse();
+        sprite.pooled = true;
+        if (size < maxSize) {
+            push(sprite);
+        } else {
+            sprite.pool = null;
+        }
+    }
+
+    private void push(AnimatedSprite sprite) {
+        if (size == free.length) {
+            free = Arrays.copyOf(free, Math.min(maxSize, free.length * 2));
+        }
+        free[size++] = sprite;
+    }
+
+    /**
+     * Number of sprites available in the pool
+     *
+     * @return number of free sprites
+     */
+    public synchronized int getSize() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Number of {@link SpritePool#obtain()} calls served with a sprite from the pool
+     *
+     * @return hit count
+     */
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Number of {@link SpritePool#obtain()} calls which created a new sprite
+     *
+     * @return miss count
+     */
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Ratio of the hits to all requests
+     *
+     * @return hit rate between 0 and 1, 0 if nothing was requested yet
+     */
+    public synchronized float getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0f : (float) hitCount / total;
+    }
+
+    /**
+     * Reset the hit and miss counters
+     */
+    public synchronized void resetCounters() {
+        hitCount = 0;
+        missCount = 0;
+    }
+}
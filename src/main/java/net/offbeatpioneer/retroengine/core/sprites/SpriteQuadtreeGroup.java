@@ -6,6 +6,8 @@ import android.graphics.RectF;
 
 import net.offbeatpioneer.retroengine.auxiliary.struct.quadtree.QuadTree;
 import net.offbeatpioneer.retroengine.core.animation.AnimationSuite;
+import net.offbeatpioneer.retroengine.core.render.DirtyRegion;
+import net.offbeatpioneer.retroengine.core.render.RenderCommandBuffer;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -43,9 +45,15 @@ public class SpriteQuadtreeGroup extends SpatialPartitionGroup<QuadTree<Abstract
      */
     @Override
     public void draw(Canvas canvas, long currentTime) {
+        setDrawCounts(0, 0);
+        if (disable) {
+            return;
+        }
         final List<QuadTree<AbstractSprite>.CoordHolder> childs = getChildren();
         synchronized (children) {
-            this.draw(childs, canvas, currentTime);
+            for (QuadTree<AbstractSprite>.CoordHolder each : childs) {
+                drawChild(each.o, canvas, currentTime);
+            }
         }
     }
 
@@ -65,14 +73,46 @@ public class SpriteQuadtreeGroup extends SpatialPartitionGroup<QuadTree<Abstract
         return getChildren();
     }
 
-    private void draw(List<QuadTree<AbstractSprite>.CoordHolder> childs, Canvas canvas, long currentTime) {
-        for (QuadTree.CoordHolder each : childs) {
-            AbstractSprite eachSprite = (AbstractSprite) each.o;
-            if (eachSprite.hasChildren()) {
-                List<QuadTree<AbstractSprite>.CoordHolder> list2 = ((SpriteQuadtreeGroup) eachSprite).getChildren();
-                draw(list2, canvas, currentTime);
-            } else {
-                eachSprite.draw(canvas, currentTime);
+    /**
+     * Collect the damaged areas of all children within the query range and of the removed children.
+     * If the group is disabled or enabled again the whole surface is damaged.
+     *
+     * @param region the region to add the damaged areas to
+     */
+    @Override
+    public void collectDamage(DirtyRegion region) {
+        boolean visible = !disable;
+        if (visible != lastDrawVisible) {
+            region.invalidateAll();
+            lastDrawVisible = visible;
+        }
+        collectRemovedDamage(region);
+        if (!visible) {
+            return;
+        }
+        final List<QuadTree<AbstractSprite>.CoordHolder> childs = getChildren();
+        synchronized (children) {
+            for (QuadTree<AbstractSprite>.CoordHolder each : childs) {
+                each.o.collectDamage(region);
+            }
+        }
+    }
+
+    /**
+     * Record the drawing of all children within the query range
+     *
+     * @param buffer the command buffer
+     */
+    @Override
+    public void record(RenderCommandBuffer buffer) {
+        setDrawCounts(0, 0);
+        if (disable) {
+            return;
+        }
+        final List<QuadTree<AbstractSprite>.CoordHolder> childs = getChildren();
+        synchronized (children) {
+            for (QuadTree<AbstractSprite>.CoordHolder each : childs) {
+                recordChild(each.o, buffer);
             }
         }
     }
@@ -106,6 +146,7 @@ public class SpriteQuadtreeGroup extends SpatialPartitionGroup<QuadTree<Abstract
                     eachSprite.updateLogic();
                 } else {
                     each.remove();
+                    releaseRemovedChild(eachSprite);
                 }
             }
         }
@@ -138,6 +179,7 @@ public class SpriteQuadtreeGroup extends SpatialPartitionGroup<QuadTree<Abstract
             if (eachSprite.hasChildren()) {
                 if (!eachSprite.isActive()) {
                     each.remove();
+                    releaseRemovedChild(eachSprite);
                 } else {
                     List<QuadTree<AbstractSprite>.CoordHolder> list2 = ((SpriteQuadtreeGroup) eachSprite).getChildren();
                     removeInActive(list2);
@@ -145,11 +187,24 @@ public class SpriteQuadtreeGroup extends SpatialPartitionGroup<QuadTree<Abstract
             } else {
                 if (!eachSprite.isActive()) {
                     each.remove();
+                    releaseRemovedChild(eachSprite);
                 }
             }
         }
     }
 
+    @Override
+    void returnToPools() {
+        synchronized (children) {
+            // all children, not only the ones in the query range
+            List<QuadTree<AbstractSprite>.CoordHolder> all = children.findAll(Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY,
+                    Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+            for (int i = 0, n = all.size(); i < n; i++) {
+                all.get(i).o.returnToPools();
+            }
+        }
+    }
+
     /**
      * Calls the onAction method of every child in the group.
      *
@@ -167,6 +222,7 @@ public class SpriteQuadtreeGroup extends SpatialPartitionGroup<QuadTree<Abstract
     public void clearSprites() {
         synchronized (children) {
             children.root.items.clear();
+            damageAllRemovedChildren();
         }
     }
 
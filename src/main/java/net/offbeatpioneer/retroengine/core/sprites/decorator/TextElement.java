@@ -1,18 +1,21 @@
 package net.offbeatpioneer.retroengine.core.sprites.decorator;
 
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Paint;
 import android.graphics.PointF;
 import android.graphics.Rect;
+import android.graphics.RectF;
 
 import net.offbeatpioneer.retroengine.R;
 import net.offbeatpioneer.retroengine.core.GameFont;
-import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.render.RenderCommandBuffer;
+import net.offbeatpioneer.retroengine.core.render.SharedPaint;
 import net.offbeatpioneer.retroengine.core.sprites.AbstractSprite;
 import net.offbeatpioneer.retroengine.core.sprites.Decorator;
 import net.offbeatpioneer.retroengine.core.sprites.EmptySprite;
+import net.offbeatpioneer.retroengine.core.texture.TextureHandle;
+import net.offbeatpioneer.retroengine.core.texture.TextureRegistry;
 
 /**
  * Text sprite as decorator for any {@link net.offbeatpioneer.retroengine.core.sprites.AnimatedSprite}.
@@ -24,12 +27,16 @@ import net.offbeatpioneer.retroengine.core.sprites.EmptySprite;
  */
 public class TextElement extends Decorator {
 
+    // placeholder texture of all pure text sprites, decoded once and never released
+    private static TextureHandle emptyTexture = null;
+
     private GameFont font = new GameFont(12);
     private String text = "";
     private Bitmap tempBmp = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
     private Canvas c = new Canvas();
     private int textWidth = 0, textHeight = 0;
     private float descent = 0f;
+    private final RectF textArea = new RectF();
     private int bgColor = -1;
 
     /**
@@ -61,7 +68,7 @@ public class TextElement extends Decorator {
      * @param position the position of the text. Underlying "placeholder" sprite will get this position
      */
     public TextElement(String text, PointF position) {
-        this(text, new EmptySprite().init(BitmapFactory.decodeResource(RetroEngine.Resources, R.drawable.empty), position));
+        this(text, new EmptySprite().init(getEmptyTexture(), position));
     }
 
     /**
@@ -71,7 +78,18 @@ public class TextElement extends Decorator {
      * @param text the text
      */
     public TextElement(String text) {
-        this(text, new EmptySprite().init(BitmapFactory.decodeResource(RetroEngine.Resources, R.drawable.empty), new PointF(0, 0)));
+        this(text, new EmptySprite().init(getEmptyTexture(), new PointF(0, 0)));
+    }
+
+    private static synchronized Bitmap getEmptyTexture() {
+        if (emptyTexture == null || emptyTexture.getBitmap().isRecycled()) {
+            if (emptyTexture != null) {
+                // the stale handle still counts as a reference of the recycled texture
+                emptyTexture.release();
+            }
+            emptyTexture = TextureRegistry.getInstance().acquire(R.drawable.empty);
+        }
+        return emptyTexture.getBitmap();
     }
 
 
@@ -118,6 +136,7 @@ public class TextElement extends Decorator {
     public TextElement initWithText(String text, PointF pos) {
         getSprite().setPosition(pos);
 
+        Paint paint = getPaint();
         paint.setTextAlign(Paint.Align.LEFT);
         paint.setTextSize(font.getFontSize());
         paint.setTypeface(font.getTypeface());
@@ -154,19 +173,53 @@ public class TextElement extends Decorator {
 
     @Override
     public void draw(Canvas canvas, long currentTime) {
-        getSprite().draw(canvas, currentTime);
+        AbstractSprite sprite = getSprite();
+        sprite.draw(canvas, currentTime);
+
+        updateTransformationMatrix();
+        if (canvas.quickReject(getTextArea(), Canvas.EdgeType.AA)) {
+            setDrawCounts(sprite.getDrawnCount(), sprite.getCulledCount() + 1);
+            return;
+        }
+        canvas.drawBitmap(texture, transformationMatrix, SharedPaint.forCurrentThread().apply(getRenderState()));
+        setDrawCounts(sprite.getDrawnCount() + 1, sprite.getCulledCount());
+    }
+
+    @Override
+    public void record(RenderCommandBuffer buffer) {
+        AbstractSprite sprite = getSprite();
+        sprite.record(buffer);
 
+        updateTransformationMatrix();
+        if (buffer.isCulled(getTextArea())) {
+            setDrawCounts(sprite.getDrawnCount(), sprite.getCulledCount() + 1);
+            return;
+        }
+        buffer.add(texture, null, transformationMatrix, getRenderState());
+        setDrawCounts(sprite.getDrawnCount() + 1, sprite.getCulledCount());
+    }
+
+    // bounds of the text texture, the transformation matrix must be up to date
+    private RectF getTextArea() {
+        textArea.set(0, 0, texture.getWidth(), texture.getHeight());
+        transformationMatrix.mapRect(textArea);
+        return textArea;
+    }
+
+    /**
+     * The text is drawn at the position of the decorated sprite
+     */
+    @Override
+    protected void updateTransformationMatrix() {
         PointF spritePos = getSprite().getPosition();
         pivotPoint.set(
                 spritePos.x + frameW / 2,
                 spritePos.y + frameH / 2);
 
-        paint.setAlpha(getAlphaValue());
         transformationMatrix.reset();
         transformationMatrix.postScale(getScale(), getScale(), pivotPoint.x, pivotPoint.y);
         transformationMatrix.postRotate(getAngle(), pivotPoint.x, pivotPoint.y);
         transformationMatrix.preTranslate(spritePos.x, spritePos.y);
-        canvas.drawBitmap(texture, transformationMatrix, paint);
     }
 
     /**
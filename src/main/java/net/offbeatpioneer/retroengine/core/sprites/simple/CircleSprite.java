@@ -3,13 +3,16 @@ package net.offbeatpioneer.retroengine.core.sprites.simple;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Paint;
 import android.graphics.PointF;
 
 import net.offbeatpioneer.retroengine.core.sprites.AnimatedSprite;
 import net.offbeatpioneer.retroengine.core.sprites.Colorable;
 
 /**
- * A circle as basic sprite.
+ * A circle as basic sprite. The texture is shared with all circles of the same size and color
+ * (see {@link ShapeRasterCache}). Alternatively the circle is drawn without texture
+ * (see {@link CircleSprite#setVectorMode(boolean)}).
  *
  * @author Dominik Grzelak
  */
@@ -17,7 +20,8 @@ public class CircleSprite extends AnimatedSprite implements Colorable {
 
     private float radius = 0f;
     protected int color;
-    private Bitmap tempBmp = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
+    private Bitmap tempBmp;
+    private boolean vectorMode = false;
 
     /**
      * Default constructor. The default color is black, and the default radius is 0.
@@ -76,22 +80,48 @@ public class CircleSprite extends AnimatedSprite implements Colorable {
     }
 
     public AnimatedSprite redraw() {
-        tempBmp.recycle();
-        tempBmp = Bitmap.createBitmap((int) (radius * 2 * getScale()), (int) (radius * 2 * getScale()),
-                Bitmap.Config.ARGB_8888);
-        Canvas c = new Canvas();
-        c.setBitmap(tempBmp);
-//        c.drawColor(Color.BLUE);
+        if (vectorMode) {
+            int size = (int) Math.ceil(radius * 2);
+            return initWithoutTexture(position, size, size);
+        }
+        int size = (int) (radius * 2 * getScale());
         int ar = Color.argb(getAlphaValue(), Color.red(color), Color.green(color), Color.blue(color));
-        paint.setColor(ar);
-        paint.setStrokeWidth(1);
-//        paint.setAlpha(getAlphaValue());
-        paint.setAntiAlias(true);
-        c.drawCircle((int) radius * getScale(), (int) radius * getScale(), this.radius * getScale(), paint);
+        tempBmp = ShapeRasterCache.getInstance().obtain(ShapeRasterCache.Shape.CIRCLE, size, size, ar);
 //        position = new PointF(position.x, position.y);
         return this.init(tempBmp, position, new PointF(0, 0));
     }
 
+    @Override
+    protected void drawVector(Canvas canvas) {
+        Paint paint = getPaint();
+        paint.setStyle(Paint.Style.FILL);
+        paint.setAntiAlias(true);
+        paint.setColor(Color.argb(getAlphaValue(), Color.red(color), Color.green(color), Color.blue(color)));
+        paint.setColorFilter(getColorFilter());
+        canvas.drawCircle(radius, radius, radius, paint);
+    }
+
+    @Override
+    protected boolean isVectorShape() {
+        return vectorMode;
+    }
+
+    public boolean isVectorMode() {
+        return vectorMode;
+    }
+
+    /**
+     * Draw the circle with vector operations instead of a texture. No bitmap is created and changes of the
+     * radius, color and scale don't need a new texture. The scale of the sprite is applied when drawing.
+     * <p>
+     * The mode takes effect with the next initialisation of the sprite.
+     *
+     * @param vectorMode true, to draw without texture
+     */
+    public void setVectorMode(boolean vectorMode) {
+        this.vectorMode = vectorMode;
+    }
+
     @Override
     public int getColor() {
         return color;
@@ -100,6 +130,9 @@ public class CircleSprite extends AnimatedSprite implements Colorable {
     @Override
     public void setColor(int color) {
         this.color = color;
+        if (vectorMode) {
+            invalidate();
+        }
     }
 
     public float getRadius() {
@@ -108,5 +141,9 @@ public class CircleSprite extends AnimatedSprite implements Colorable {
 
     public void setRadius(float radius) {
         this.radius = radius;
+        if (vectorMode && getTexture() == null) {
+            int size = (int) Math.ceil(radius * 2);
+            setFrameSize(size, size);
+        }
     }
 }
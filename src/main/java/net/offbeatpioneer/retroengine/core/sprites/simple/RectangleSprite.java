@@ -3,6 +3,7 @@ package net.offbeatpioneer.retroengine.core.sprites.simple;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
+import android.graphics.Paint;
 import android.graphics.PointF;
 
 import net.offbeatpioneer.retroengine.core.RetroEngine;
@@ -10,7 +11,9 @@ import net.offbeatpioneer.retroengine.core.sprites.AnimatedSprite;
 import net.offbeatpioneer.retroengine.core.sprites.Colorable;
 
 /**
- * A basic shape which represents a rectangle.
+ * A basic shape which represents a rectangle. The texture is shared with all rectangles of the
+ * same size and color (see {@link ShapeRasterCache}). Alternatively the rectangle is drawn without
+ * texture (see {@link RectangleSprite#setVectorMode(boolean)}).
  *
  * @author Dominik Grzelak
  * @since 05.03.2017.
@@ -20,7 +23,8 @@ public class RectangleSprite extends AnimatedSprite implements Colorable {
     private float width;
     private float height;
     private int color;
-    private Bitmap tempBmp = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
+    private Bitmap tempBmp;
+    private boolean vectorMode = false;
 
 
     public RectangleSprite() {
@@ -44,18 +48,12 @@ public class RectangleSprite extends AnimatedSprite implements Colorable {
         this.width = width; // * RetroEngine.DENSITY + 0.5f;
         this.height = height; // * RetroEngine.DENSITY + 0.5f;
 
-        //prepare circle image and save it as bitmap
-        tempBmp.recycle();
-        tempBmp = Bitmap.createBitmap((int) this.width, (int) this.height, Bitmap.Config.ARGB_8888);
-        Canvas c = new Canvas();
-        c.setBitmap(tempBmp);
-//        c.drawColor(Color.BLUE);
+        if (vectorMode) {
+            return initWithoutTexture(position, (int) Math.ceil(this.width), (int) Math.ceil(this.height));
+        }
         int ar = Color.argb(getAlphaValue(), Color.red(color), Color.green(color), Color.blue(color));
-        paint.setColor(ar);
-        paint.setStrokeWidth(1);
-        paint.setAntiAlias(true);
-//        c.drawRect(position.x, position.y, position.x + this.width, position.y + this.height, paint);
-        c.drawRect(0, 0, this.width, this.height, paint);
+        tempBmp = ShapeRasterCache.getInstance().obtain(ShapeRasterCache.Shape.RECTANGLE,
+                (int) this.width, (int) this.height, ar);
         return this.init(tempBmp, position, new PointF(0, 0));
     }
 
@@ -65,6 +63,37 @@ public class RectangleSprite extends AnimatedSprite implements Colorable {
     }
 
 
+    @Override
+    protected void drawVector(Canvas canvas) {
+        Paint paint = getPaint();
+        paint.setStyle(Paint.Style.FILL);
+        paint.setAntiAlias(true);
+        paint.setColor(Color.argb(getAlphaValue(), Color.red(color), Color.green(color), Color.blue(color)));
+        paint.setColorFilter(getColorFilter());
+        canvas.drawRect(0, 0, width, height, paint);
+    }
+
+    @Override
+    protected boolean isVectorShape() {
+        return vectorMode;
+    }
+
+    public boolean isVectorMode() {
+        return vectorMode;
+    }
+
+    /**
+     * Draw the rectangle with vector operations instead of a texture. No bitmap is created and changes of the
+     * size, color and scale don't need a new texture. The scale of the sprite is applied when drawing.
+     * <p>
+     * The mode takes effect with the next initialisation of the sprite.
+     *
+     * @param vectorMode true, to draw without texture
+     */
+    public void setVectorMode(boolean vectorMode) {
+        this.vectorMode = vectorMode;
+    }
+
     @Override
     public int getColor() {
         return this.color;
@@ -73,5 +102,8 @@ public class RectangleSprite extends AnimatedSprite implements Colorable {
     @Override
     public void setColor(int color) {
         this.color = color;
+        if (vectorMode) {
+            invalidate();
+        }
     }
 }
@@ -0,0 +1,199 @@
+package net.offbeatpioneer.retroengine.core.sprites.simple;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.util.LruCache;
+
+import java.util.Map;
+
+/**
+ * Shared cache for the textures of the primitive sprites ({@link CircleSprite}, {@link RectangleSprite}
+ * and {@link TriangleSprite}). This class is implemented as singleton.
+ * <p>
+ * A texture is identified by the shape, its size in pixels (including the scale of the sprite) and its
+ * color (including the alpha value). Identical primitives share one bitmap instead of rasterizing their
+ * own one. The cache is bounded by a memory budget in bytes, the least recently used textures are
+ * evicted if it is exceeded.
+ * <p>
+ * Evicted textures aren't recycled because sprites may still draw them, they are freed by the garbage
+ * collector. So the cached textures must not be recycled by the sprites either.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class ShapeRasterCache {
+
+    /**
+     * Default memory budget of 4 MB
+     */
+    public static final int DEFAULT_BUDGET = 4 * 1024 * 1024;
+
+    /**
+     * The shapes that can be rasterized
+     */
+    public enum Shape {
+        CIRCLE, RECTANGLE, TRIANGLE
+    }
+
+    private static ShapeRasterCache instance = null;
+
+    private LruCache<Key, Bitmap> rasters = createCache(DEFAULT_BUDGET);
+
+    public static synchronized ShapeRasterCache getInstance() {
+        if (instance == null)
+            instance = new ShapeRasterCache();
+        return instance;
+    }
+
+    private ShapeRasterCache() {
+    }
+
+    private static LruCache<Key, Bitmap> createCache(int budget) {
+        return new LruCache<Key, Bitmap>(budget) {
+            @Override
+            protected int sizeOf(Key key, Bitmap value) {
+                return value.getByteCount();
+            }
+
+            @Override
+            protected Bitmap create(Key key) {
+                return rasterize(key);
+            }
+        };
+    }
+
+    /**
+     * Get the texture of a shape. It is rasterized if it isn't cached yet.
+     *
+     * @param shape  the shape
+     * @param width  width of the texture in pixels, at least 1
+     * @param height height of the texture in pixels, at least 1
+     * @param color  ARGB color of the shape
+     * @return the shared texture, must not be recycled
+     */
+    public Bitmap obtain(Shape shape, int width, int height, int color) {
+        Key key = new Key(shape, Math.max(1, width), Math.max(1, height), color);
+        LruCache<Key, Bitmap> cache;
+        synchronized (this) {
+            cache = rasters;
+        }
+        return cache.get(key);
+    }
+
+    private static Bitmap rasterize(Key key) {
+        Bitmap bitmap = Bitmap.createBitmap(key.width, key.height, Bitmap.Config.ARGB_8888);
+        Canvas c = new Canvas(bitmap);
+        Paint paint = new Paint();
+        paint.setColor(key.color);
+        paint.setAntiAlias(true);
+        paint.setStyle(Paint.Style.FILL);
+        switch (key.shape) {
+            case CIRCLE:
+                float radius = Math.min(key.width, key.height) / 2f;
+                c.drawCircle(key.width / 2f, key.height / 2f, radius, paint);
+                break;
+            case RECTANGLE:
+                c.drawRect(0, 0, key.width, key.height, paint);
+                break;
+            case TRIANGLE:
+                Path path = new Path();
+                path.moveTo(key.width / 2f, 0);
+                path.lineTo(0, key.height);
+                path.lineTo(key.width, key.height);
+                path.close();
+                c.drawPath(path, paint);
+                break;
+        }
+        return bitmap;
+    }
+
+    /**
+     * Set the memory budget of the cache. If the cached textures need more memory, the least recently
+     * used ones are evicted.
+     *
+     * @param bytes the budget in bytes
+     */
+    public synchronized void setMemoryBudget(int bytes) {
+        if (bytes <= 0) {
+            throw new IllegalArgumentException("The memory budget must be positive");
+        }
+        LruCache<Key, Bitmap> cache = createCache(bytes);
+        // the snapshot is ordered from the least to the most recently used texture
+        for (Map.Entry<Key, Bitmap> entry : rasters.snapshot().entrySet()) {
+            cache.put(entry.getKey(), entry.getValue());
+        }
+        rasters = cache;
+    }
+
+    public synchronized int getMemoryBudget() {
+        return rasters.maxSize();
+    }
+
+    /**
+     * Memory held by the cached textures
+     *
+     * @return size in bytes
+     */
+    public synchronized int getBytesHeld() {
+        return rasters.size();
+    }
+
+    public synchronized int getTextureCount() {
+        return rasters.snapshot().size();
+    }
+
+    /**
+     * Ratio of the requests that were served from the cache since the budget was set or the cache was cleared
+     *
+     * @return hit rate between 0 and 1
+     */
+    public synchronized float getHitRate() {
+        int hits = rasters.hitCount();
+        int total = hits + rasters.missCount();
+        return total == 0 ? 0f : hits / (float) total;
+    }
+
+    public synchronized int getEvictionCount() {
+        return rasters.evictionCount();
+    }
+
+    /**
+     * Remove all textures and reset the counters
+     */
+    public synchronized void clear() {
+        rasters = createCache(rasters.maxSize());
+    }
+
+    private static final class Key {
+        final Shape shape;
+        final int width;
+        final int height;
+        final int color;
+
+        Key(Shape shape, int width, int height, int color) {
+            this.shape = shape;
+            this.width = width;
+            this.height = height;
+            this.color = color;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return shape == key.shape && width == key.width && height == key.height && color == key.color;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = shape.hashCode();
+            result = 31 * result + width;
+            result = 31 * result + height;
+            result = 31 * result + color;
+            return result;
+        }
+    }
+}
@@ -5,14 +5,15 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
-import android.graphics.Point;
 import android.graphics.PointF;
 
 import net.offbeatpioneer.retroengine.core.sprites.AnimatedSprite;
 import net.offbeatpioneer.retroengine.core.sprites.Colorable;
 
 /**
- * Basic shape represents an equilateral triangle.
+ * Basic shape represents an equilateral triangle. The texture is shared with all triangles of the
+ * same size and color (see {@link ShapeRasterCache}). Alternatively the triangle is drawn without
+ * texture from a reused path (see {@link TriangleSprite#setVectorMode(boolean)}).
  *
  * @author Dominik Grzelak
  * @since 05.03.2017.
@@ -20,7 +21,11 @@ import net.offbeatpioneer.retroengine.core.sprites.Colorable;
 public class TriangleSprite extends AnimatedSprite implements Colorable {
 
     private int color;
-    private Bitmap tempBmp = Bitmap.createBitmap(1, 1, Bitmap.Config.ARGB_8888);
+    private Bitmap tempBmp;
+    private boolean vectorMode = false;
+    // outline of the vector mode, only rebuilt if the length changes
+    private Path path;
+    private float pathLength = -1;
     private float length; //length of one side
 
     public TriangleSprite(int color) {
@@ -44,30 +49,56 @@ public class TriangleSprite extends AnimatedSprite implements Colorable {
         this.color = color;
         this.position = pos;
 
-        //prepare circle image and save it as bitmap
-        tempBmp.recycle();
-        tempBmp = Bitmap.createBitmap((int) this.length, (int) this.length, Bitmap.Config.ARGB_8888);
-        Canvas c =  new Canvas();
-        c.setBitmap(tempBmp);
-//        c.drawColor(Color.BLUE);
+        if (vectorMode) {
+            int size = (int) Math.ceil(this.length);
+            return initWithoutTexture(position, size, size);
+        }
         int ar = Color.argb(getAlphaValue(), Color.red(color), Color.green(color), Color.blue(color));
-        paint.setColor(ar);
-        paint.setStrokeWidth(3);
-        paint.setAntiAlias(true);
+        tempBmp = ShapeRasterCache.getInstance().obtain(ShapeRasterCache.Shape.TRIANGLE,
+                (int) this.length, (int) this.length, ar);
+        return this.init(tempBmp, position, new PointF(0, 0));
+    }
+
+    @Override
+    protected void drawVector(Canvas canvas) {
+        if (path == null) {
+            path = new Path();
+        }
+        if (pathLength != length) {
+            pathLength = length;
+            path.rewind();
+            path.moveTo(length / 2f, 0);
+            path.lineTo(0, length);
+            path.lineTo(length, length);
+            path.close();
+        }
+        Paint paint = getPaint();
         paint.setStyle(Paint.Style.FILL);
-        Path path = new Path();
-        Point point1_draw = new Point((int) length / 2, 0);
-        Point point2_draw = new Point(0, (int) length);
-        Point point3_draw = new Point((int) length, (int) length);
-        path.moveTo(point1_draw.x, point1_draw.y);
-        path.lineTo(point2_draw.x, point2_draw.y);
-        path.lineTo(point3_draw.x, point3_draw.y);
-        path.lineTo(point1_draw.x, point1_draw.y);
-        path.close();
+        paint.setAntiAlias(true);
+        paint.setColor(Color.argb(getAlphaValue(), Color.red(color), Color.green(color), Color.blue(color)));
+        paint.setColorFilter(getColorFilter());
+        canvas.drawPath(path, paint);
+    }
+
+    @Override
+    protected boolean isVectorShape() {
+        return vectorMode;
+    }
 
-        c.drawPath(path, paint);
+    public boolean isVectorMode() {
+        return vectorMode;
+    }
 
-        return this.init(tempBmp, position, new PointF(0, 0));
+    /**
+     * Draw the triangle with vector operations instead of a texture. No bitmap is created and changes of the
+     * length, color and scale don't need a new texture. The scale of the sprite is applied when drawing.
+     * <p>
+     * The mode takes effect with the next initialisation of the sprite.
+     *
+     * @param vectorMode true, to draw without texture
+     */
+    public void setVectorMode(boolean vectorMode) {
+        this.vectorMode = vectorMode;
     }
 
     @Override
@@ -78,5 +109,8 @@ public class TriangleSprite extends AnimatedSprite implements Colorable {
     @Override
     public void setColor(int color) {
         this.color = color;
+        if (vectorMode) {
+            invalidate();
+        }
     }
 }
@@ -13,6 +13,11 @@ import net.offbeatpioneer.retroengine.auxiliary.background.BackgroundLayer;
 import net.offbeatpioneer.retroengine.auxiliary.background.BackgroundNode;
 import net.offbeatpioneer.retroengine.core.StateManager;
 import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.profiling.FramePhase;
+import net.offbeatpioneer.retroengine.core.profiling.FrameProfiler;
+import net.offbeatpioneer.retroengine.core.quality.DegradableFeature;
+import net.offbeatpioneer.retroengine.core.render.DirtyRegion;
+import net.offbeatpioneer.retroengine.core.render.RenderCommandBuffer;
 import net.offbeatpioneer.retroengine.core.sprites.AbstractSprite;
 import net.offbeatpioneer.retroengine.core.sprites.ISpriteGroup;
 import net.offbeatpioneer.retroengine.core.sprites.SpatialPartitionGroup;
@@ -20,6 +25,7 @@ import net.offbeatpioneer.retroengine.core.sprites.SpriteListGroup;
 import net.offbeatpioneer.retroengine.core.sprites.SpriteQuadtreeGroup;
 import net.offbeatpioneer.retroengine.view.DrawView;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -61,6 +67,15 @@ public abstract class State {
     private BackgroundNode backgroundNode;
     private boolean scrollWorld = true;
 
+    // tick rate of this state, -1 means the default values of RetroEngine are used
+    private int ticksPerSecond = -1;
+    private int maxFrameSkip = -1;
+    private float interpolation = 0f;
+    private final List<DegradableFeature> degradableFeatures = new ArrayList<>();
+    private boolean damageInvalidated = false;
+    private RenderCommandBuffer commandBuffer = null;
+    private final Paint commandPaint = new Paint();
+
     /**
      * Gibt für jeden State die aktuelle Zeit in ms an, nachdem ein Frame-Update passiert ist.
      */
@@ -69,6 +84,7 @@ public abstract class State {
 
     // Save reference to the StateManager
     protected StateManager manager = StateManager.getInstance();
+    private final FrameProfiler profiler = FrameProfiler.getInstance();
 
     public State() {
         this(new SpriteListGroup());
@@ -92,7 +108,48 @@ public abstract class State {
     }
 
     public void drawSprites(Canvas canvas, long currentTime) {
-        rootGroup.draw(canvas, currentTime);
+        long start = profiler.begin();
+        if (commandBuffer != null && rootGroup instanceof AbstractSprite) {
+            commandBuffer.begin(currentTime, canvas);
+            ((AbstractSprite) rootGroup).record(commandBuffer);
+            commandBuffer.replay(canvas, commandPaint);
+        } else {
+            rootGroup.draw(canvas, currentTime);
+        }
+        profiler.end(FramePhase.DRAW, start);
+    }
+
+    /**
+     * Draw the sprites with a {@link RenderCommandBuffer}. The sprites record their drawing commands
+     * during the traversal of the root group and the buffer replays them afterwards on the canvas.
+     * The buffer can sort the commands by texture and counts the draw calls.
+     *
+     * @param enabled true, to draw the sprites with a command buffer
+     */
+    public void setCommandBufferEnabled(boolean enabled) {
+        if (enabled && commandBuffer == null) {
+            commandBuffer = new RenderCommandBuffer();
+        } else if (!enabled) {
+            commandBuffer = null;
+        }
+    }
+
+    /**
+     * Command buffer which is used to draw the sprites
+     *
+     * @return the command buffer or {@code null} if it isn't enabled
+     */
+    public RenderCommandBuffer getCommandBuffer() {
+        return commandBuffer;
+    }
+
+    /**
+     * Set the command buffer which is used to draw the sprites
+     *
+     * @param commandBuffer the command buffer or {@code null} to draw the sprites directly
+     */
+    public void setCommandBuffer(RenderCommandBuffer commandBuffer) {
+        this.commandBuffer = commandBuffer;
     }
 
     public void updateSprites() {
@@ -158,7 +215,9 @@ public abstract class State {
     }
 
     public void drawBackground(Canvas canvas) {
+        long start = profiler.begin();
         backgroundNode.scrollWorld(canvas, scrollWorld);
+        profiler.end(FramePhase.SCROLL, start);
     }
 
     /**
@@ -173,6 +232,36 @@ public abstract class State {
         return backgroundNode.getBackgrounds().size();
     }
 
+    /**
+     * Limit the number of drawn background layers. The layers that were added last are skipped.
+     *
+     * @param maxLayers maximum number of drawn layers, -1 to draw all layers
+     */
+    public void setMaxVisibleBackgroundLayers(int maxLayers) {
+        backgroundNode.setMaxVisibleLayers(maxLayers);
+    }
+
+    /**
+     * Register a feature of this state which can be degraded by the
+     * {@link net.offbeatpioneer.retroengine.core.quality.QualityGovernor} if the frame budget is exceeded,
+     * e.g. a particle group ({@link net.offbeatpioneer.retroengine.core.quality.SpriteVisibilityFeature}).
+     * The features are restored when the state isn't active anymore.
+     *
+     * @param feature the feature
+     */
+    public void addDegradableFeature(DegradableFeature feature) {
+        if (feature != null && !degradableFeatures.contains(feature))
+            degradableFeatures.add(feature);
+    }
+
+    public void removeDegradableFeature(DegradableFeature feature) {
+        degradableFeatures.remove(feature);
+    }
+
+    public List<DegradableFeature> getDegradableFeatures() {
+        return degradableFeatures;
+    }
+
     /**
      * Get the number of sprites inserted as direct child in the {@code rootGroup}.
      *
@@ -213,6 +302,38 @@ public abstract class State {
         return backgroundNode.getViewportOrigin();
     }
 
+    /**
+     * Collect the damaged areas of the background and all sprites for the dirty-rectangle mode
+     * of the {@link net.offbeatpioneer.retroengine.view.RenderThread}.
+     * <p>
+     * Only the background layers and the sprites of the root group are tracked. A state that draws
+     * anything else in its render method must report these changes with {@link State#invalidate()}.
+     *
+     * @param region the region in screen coordinates to add the damaged areas to
+     */
+    public void collectDamage(DirtyRegion region) {
+        if (damageInvalidated) {
+            region.invalidateAll();
+            damageInvalidated = false;
+        }
+        backgroundNode.collectDamage(region, scrollWorld);
+        if (rootGroup instanceof AbstractSprite) {
+            if (scrollWorld) {
+                PointF origin = getViewportOrigin();
+                region.setOffset(-origin.x, -origin.y);
+            }
+            ((AbstractSprite) rootGroup).collectDamage(region);
+            region.setOffset(0, 0);
+        }
+    }
+
+    /**
+     * Repaint the whole surface in the next frame of the dirty-rectangle mode
+     */
+    public void invalidate() {
+        damageInvalidated = true;
+    }
+
     synchronized public void addSprite(AbstractSprite sprite) {
         rootGroup.add(sprite);
     }
@@ -232,6 +353,9 @@ public abstract class State {
     }
 
     public void setScrollWorld(boolean scrollWorld) {
+        if (this.scrollWorld != scrollWorld) {
+            invalidate();
+        }
         this.scrollWorld = scrollWorld;
     }
 
@@ -254,6 +378,26 @@ public abstract class State {
      */
     public abstract void render(Canvas canvas, Paint paint, long currentTime);
 
+    /**
+     * Render logic for a state which is called by the {@link net.offbeatpioneer.retroengine.view.RenderThread}.
+     * <p>
+     * The interpolation value states how far the current frame lies between the last and the next
+     * logic update. It can be used to blend positions between two ticks to get a smooth motion
+     * on displays with a refresh rate that is not a multiple of the tick rate.
+     * The value is also available with {@link State#getInterpolation()}.
+     * <p>
+     * The default implementation delegates to {@link State#render(Canvas, Paint, long)}.
+     *
+     * @param canvas        Drawing surface
+     * @param paint         Paint
+     * @param currentTime   current time
+     * @param interpolation value between 0 and 1
+     */
+    public void render(Canvas canvas, Paint paint, long currentTime, float interpolation) {
+        this.interpolation = interpolation;
+        render(canvas, paint, currentTime);
+    }
+
     /**
      * Process key events
      *
@@ -303,6 +447,54 @@ public abstract class State {
         this.isFinished = isFinished;
     }
 
+    /**
+     * Interpolation value of the current frame between the last and the next logic update
+     *
+     * @return value between 0 and 1
+     */
+    public float getInterpolation() {
+        return interpolation;
+    }
+
+    /**
+     * Number of logic updates per second for this state. If not set the value of
+     * {@link RetroEngine#TICKS_PER_SECOND} is used.
+     *
+     * @return ticks per second
+     */
+    public int getTicksPerSecond() {
+        return ticksPerSecond > 0 ? ticksPerSecond : RetroEngine.TICKS_PER_SECOND;
+    }
+
+    /**
+     * Set the number of logic updates per second ({@code updateLogic()} calls) for this state.
+     * The rendering is independent of this value.
+     *
+     * @param ticksPerSecond ticks per second, a value lower or equal 0 resets it to the default value
+     */
+    public void setTicksPerSecond(int ticksPerSecond) {
+        this.ticksPerSecond = ticksPerSecond;
+    }
+
+    /**
+     * Maximum number of logic updates within one frame if the rendering falls behind.
+     * If not set the value of {@link RetroEngine#MAX_FRAMESKIP} is used.
+     *
+     * @return maximum number of logic updates per frame
+     */
+    public int getMaxFrameSkip() {
+        return maxFrameSkip > 0 ? maxFrameSkip : RetroEngine.MAX_FRAMESKIP;
+    }
+
+    /**
+     * Set the maximum number of logic updates within one frame.
+     *
+     * @param maxFrameSkip maximum number of updates, a value lower or equal 0 resets it to the default value
+     */
+    public void setMaxFrameSkip(int maxFrameSkip) {
+        this.maxFrameSkip = maxFrameSkip;
+    }
+
     public boolean isInitAsync() {
         return initAsync;
     }
@@ -0,0 +1,56 @@
+package net.offbeatpioneer.retroengine.core.texture;
+
+import android.graphics.Bitmap;
+
+/**
+ * Reference to a shared texture of the {@link TextureRegistry}.
+ * <p>
+ * The bitmap must not be recycled by the user, the handle is released instead. The bitmap
+ * stays valid until all handles of the texture are released.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class TextureHandle {
+
+    private final TextureRegistry registry;
+    private final TextureRegistry.Key key;
+    private final Bitmap bitmap;
+    private boolean released = false;
+
+    TextureHandle(TextureRegistry registry, TextureRegistry.Key key, Bitmap bitmap) {
+        this.registry = registry;
+        this.key = key;
+        this.bitmap = bitmap;
+    }
+
+    /**
+     * Get the shared bitmap
+     *
+     * @return the bitmap of the texture
+     */
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    public int getResourceId() {
+        return key.getResourceId();
+    }
+
+    /**
+     * Give up the reference to the texture. Calling this method more than once has no effect.
+     */
+    public void release() {
+        synchronized (this) {
+            if (released) {
+                return;
+            }
+            released = true;
+        }
+        registry.release(key, bitmap);
+    }
+
+    public synchronized boolean isReleased() {
+        return released;
+    }
+}
@@ -0,0 +1,208 @@
+package net.offbeatpioneer.retroengine.core.texture;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Central registry for the textures of all states and sprites.
+ * This class is implemented as singleton.
+ * <p>
+ * A texture is identified by its resource id and the decode options. It is decoded only once,
+ * every user gets a {@link TextureHandle} and the bitmap is recycled when the last handle is released.
+ * So states can share textures without freeing them for each other.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class TextureRegistry {
+
+    private static TextureRegistry instance = null;
+
+    private final Map<Key, Entry> textures = new HashMap<>();
+    private long decodeCount = 0;
+
+    public static synchronized TextureRegistry getInstance() {
+        if (instance == null)
+            instance = new TextureRegistry();
+        return instance;
+    }
+
+    private TextureRegistry() {
+    }
+
+    /**
+     * Get a handle for a texture decoded with the default options from the resources of the engine
+     * ({@link RetroEngine#Resources})
+     *
+     * @param resId resource id of the drawable
+     * @return the handle, must be released if the texture isn't used anymore
+     */
+    public TextureHandle acquire(int resId) {
+        return acquire(RetroEngine.Resources, resId, null);
+    }
+
+    /**
+     * Get a handle for a texture decoded with the given options from the resources of the engine
+     * ({@link RetroEngine#Resources})
+     *
+     * @param resId   resource id of the drawable
+     * @param options decode options or {@code null} for the default options
+     * @return the handle, must be released if the texture isn't used anymore
+     */
+    public TextureHandle acquire(int resId, BitmapFactory.Options options) {
+        return acquire(RetroEngine.Resources, resId, options);
+    }
+
+    /**
+     * Get a handle for a texture. The texture is decoded if it isn't registered yet. Only the options
+     * which affect the decoded bitmap are part of the key (sample size, bitmap config, scaling and
+     * mutability). The density of the resource is set by the decoder itself.
+     *
+     * @param res     the resources to decode the drawable from
+     * @param resId   resource id of the drawable
+     * @param options decode options or {@code null} for the default options
+     * @return the handle, must be released if the texture isn't used anymore
+     */
+    public TextureHandle acquire(Resources res, int resId, BitmapFactory.Options options) {
+        Key key = new Key(resId, options);
+        synchronized (textures) {
+            Entry entry = textures.get(key);
+            if (entry == null || entry.bitmap.isRecycled()) {
+                if (res == null) {
+                    throw new IllegalStateException("No resources available, the engine isn't initialised");
+                }
+                Bitmap bitmap = BitmapFactory.decodeResource(res, resId, options);
+                if (bitmap == null) {
+                    throw new IllegalArgumentException("Resource can't be decoded: " + resId);
+                }
+                decodeCount++;
+                entry = new Entry(bitmap);
+                textures.put(key, entry);
+            }
+            entry.references++;
+            return new TextureHandle(this, key, entry.bitmap);
+        }
+    }
+
+    /**
+     * Called by the handle. The bitmap is recycled if it was the last reference.
+     * A handle of a recycled bitmap that was already decoded again doesn't release the new texture.
+     *
+     * @param key    key of the texture
+     * @param bitmap bitmap of the handle
+     */
+    void release(Key key, Bitmap bitmap) {
+        synchronized (textures) {
+            Entry entry = textures.get(key);
+            if (entry == null || entry.bitmap != bitmap) {
+                return;
+            }
+            entry.references--;
+            if (entry.references <= 0) {
+                textures.remove(key);
+                entry.bitmap.recycle();
+            }
+        }
+    }
+
+    /**
+     * Number of handles for a texture decoded with the default options
+     *
+     * @param resId resource id of the drawable
+     * @return number of unreleased handles, 0 if the texture isn't registered
+     */
+    public int getReferenceCount(int resId) {
+        synchronized (textures) {
+            Entry entry = textures.get(new Key(resId, null));
+            return entry == null ? 0 : entry.references;
+        }
+    }
+
+    /**
+     * Number of textures that are currently decoded
+     *
+     * @return number of textures
+     */
+    public int getTextureCount() {
+        synchronized (textures) {
+            return textures.size();
+        }
+    }
+
+    /**
+     * Number of decoded resources since the start of the application
+     *
+     * @return number of decodings
+     */
+    public long getDecodeCount() {
+        synchronized (textures) {
+            return decodeCount;
+        }
+    }
+
+    /**
+     * Key of a texture: resource id and the decode options which change the resulting bitmap.
+     * The density fields aren't used, because the decoder writes them into the options.
+     * A missing bitmap config is the same as {@link Bitmap.Config#ARGB_8888}, the default of the decoder.
+     */
+    static final class Key {
+        private final int resId;
+        private final int sampleSize;
+        private final Bitmap.Config config;
+        private final boolean scaled;
+        private final boolean mutable;
+
+        Key(int resId, BitmapFactory.Options options) {
+            this.resId = resId;
+            if (options == null) {
+                this.sampleSize = 1;
+                this.config = Bitmap.Config.ARGB_8888;
+                this.scaled = true;
+                this.mutable = false;
+            } else {
+                this.sampleSize = Math.max(1, options.inSampleSize);
+                this.config = options.inPreferredConfig != null ? options.inPreferredConfig : Bitmap.Config.ARGB_8888;
+                this.scaled = options.inScaled;
+                this.mutable = options.inMutable;
+            }
+        }
+
+        int getResourceId() {
+            return resId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return resId == key.resId && sampleSize == key.sampleSize && scaled == key.scaled
+                    && mutable == key.mutable && config == key.config;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = resId;
+            result = 31 * result + sampleSize;
+            result = 31 * result + config.hashCode();
+            result = 31 * result + (scaled ? 1 : 0);
+            result = 31 * result + (mutable ? 1 : 0);
+            return result;
+        }
+    }
+
+    private static final class Entry {
+        private final Bitmap bitmap;
+        private int references = 0;
+
+        private Entry(Bitmap bitmap) {
+            this.bitmap = bitmap;
+        }
+    }
+}
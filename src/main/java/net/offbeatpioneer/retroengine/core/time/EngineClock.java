@@ -0,0 +1,34 @@
+package net.offbeatpioneer.retroengine.core.time;
+
+/**
+ * Time source of the engine. All timing related parts of the engine like the game loop
+ * in the {@link net.offbeatpioneer.retroengine.view.RenderThread} or the frame update of animated
+ * sprites obtain the current time from the clock that is set in
+ * {@link net.offbeatpioneer.retroengine.core.RetroEngine#setClock(EngineClock)}.
+ * <p>
+ * Implementations must be monotonic, that means the returned value must never decrease.
+ * The value itself has no relation to the wall-clock time and is only meaningful
+ * when compared with other values of the same clock.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public interface EngineClock {
+
+    /**
+     * Current value of the clock
+     *
+     * @return time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Block the calling thread until the clock reaches the deadline or the thread is interrupted.
+     * The interrupt flag stays set. A clock that isn't driven by the real time advances itself
+     * to the deadline instead of blocking.
+     *
+     * @param deadline time of the clock in nanoseconds
+     * @return current value of the clock
+     */
+    long sleepUntil(long deadline);
+}
@@ -0,0 +1,144 @@
+package net.offbeatpioneer.retroengine.core.time;
+
+/**
+ * Accumulator for a game loop with a fixed timestep.
+ * <p>
+ * The elapsed time of every frame is added to the accumulator. The logic update is then
+ * executed as long as a whole tick fits into the accumulated time. The remainder is expressed
+ * as the interpolation value {@code alpha} between 0 and 1 which can be used to blend between
+ * the previous and the current simulation state while rendering.
+ * <p>
+ * Usage within a loop:
+ * <pre>
+ * timestep.beginFrame(clock.nanoTime());
+ * while (timestep.consumeTick()) {
+ *     state.updateLogic();
+ * }
+ * state.render(canvas, paint, time, timestep.getAlpha());
+ * </pre>
+ * If more than {@code maxFrameSkip} ticks are pending within one frame the surplus time is dropped
+ * so that a slow device doesn't end up in an endless catch-up loop.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class FixedTimestep {
+    private static final long NANOS_PER_SECOND = 1000000000L;
+
+    private long stepNanos;
+    private int ticksPerSecond;
+    private int maxFrameSkip;
+    private long accumulator = 0;
+    private long lastTime = 0;
+    private boolean started = false;
+    private int ticksThisFrame = 0;
+
+    /**
+     * Constructor
+     *
+     * @param ticksPerSecond number of logic updates per second
+     * @param maxFrameSkip   maximum number of logic updates per frame
+     */
+    public FixedTimestep(int ticksPerSecond, int maxFrameSkip) {
+        setTickRate(ticksPerSecond, maxFrameSkip);
+    }
+
+    /**
+     * Change the tick rate. The accumulated time is kept.
+     *
+     * @param ticksPerSecond number of logic updates per second, must be greater than 0
+     * @param maxFrameSkip   maximum number of logic updates per frame, must be greater than 0
+     */
+    public void setTickRate(int ticksPerSecond, int maxFrameSkip) {
+        if (ticksPerSecond <= 0) {
+            throw new IllegalArgumentException("ticksPerSecond must be greater than 0");
+        }
+        if (maxFrameSkip <= 0) {
+            throw new IllegalArgumentException("maxFrameSkip must be greater than 0");
+        }
+        this.ticksPerSecond = ticksPerSecond;
+        this.maxFrameSkip = maxFrameSkip;
+        this.stepNanos = NANOS_PER_SECOND / ticksPerSecond;
+    }
+
+    /**
+     * Reset the accumulator, e.g. after the loop was paused. Otherwise the paused time would be
+     * caught up by many logic updates at once.
+     *
+     * @param now current time of the clock in nanoseconds
+     */
+    public void reset(long now) {
+        accumulator = 0;
+        lastTime = now;
+        started = true;
+        ticksThisFrame = 0;
+    }
+
+    /**
+     * Begin a new frame and add the elapsed time since the last frame to the accumulator
+     *
+     * @param now current time of the clock in nanoseconds
+     */
+    public void beginFrame(long now) {
+        if (!started) {
+            reset(now);
+            return;
+        }
+        long elapsed = now - lastTime;
+        lastTime = now;
+        if (elapsed > 0) {
+            accumulator += elapsed;
+        }
+        ticksThisFrame = 0;
+    }
+
+    /**
+     * Check if another logic update has to be executed in this frame. The time of one tick
+     * is removed from the accumulator if true is returned.
+     *
+     * @return true, if the logic should be updated once more, otherwise false
+     */
+    public boolean consumeTick() {
+        if (accumulator < stepNanos) {
+            return false;
+        }
+        if (ticksThisFrame >= maxFrameSkip) {
+            // drop the time we can't catch up with
+            accumulator = accumulator % stepNanos;
+            return false;
+        }
+        accumulator -= stepNanos;
+        ticksThisFrame++;
+        return true;
+    }
+
+    /**
+     * Interpolation value between the last and the next logic update
+     *
+     * @return value between 0 and 1
+     */
+    public float getAlpha() {
+        return Math.min(1f, (float) ((double) accumulator / stepNanos));
+    }
+
+    /**
+     * Number of logic updates that were executed in the current frame
+     *
+     * @return tick count of the current frame
+     */
+    public int getTicksThisFrame() {
+        return ticksThisFrame;
+    }
+
+    public long getStepNanos() {
+        return stepNanos;
+    }
+
+    public int getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+
+    public int getMaxFrameSkip() {
+        return maxFrameSkip;
+    }
+}
@@ -0,0 +1,59 @@
+package net.offbeatpioneer.retroengine.core.time;
+
+/**
+ * Clock which is only advanced manually. Used to run the engine deterministically without
+ * a relation to the real time, e.g. for benchmarks or for the replay of recorded sessions.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class ManualClock implements EngineClock {
+
+    private volatile long now;
+
+    public ManualClock() {
+        this(0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param start start time in nanoseconds
+     */
+    public ManualClock(long start) {
+        this.now = start;
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    /**
+     * Nothing else advances the clock while the caller waits, so the clock jumps to the deadline
+     * without blocking. A paced loop runs as fast as possible but sees the expected times.
+     *
+     * @param deadline time of the clock in nanoseconds
+     * @return current value of the clock
+     */
+    @Override
+    public long sleepUntil(long deadline) {
+        if (now < deadline) {
+            now = deadline;
+        }
+        return now;
+    }
+
+    /**
+     * Advance the clock
+     *
+     * @param nanos time in nanoseconds
+     */
+    public void advance(long nanos) {
+        now += nanos;
+    }
+
+    public void set(long nanos) {
+        now = nanos;
+    }
+}
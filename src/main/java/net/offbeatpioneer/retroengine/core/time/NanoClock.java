@@ -0,0 +1,33 @@
+package net.offbeatpioneer.retroengine.core.time;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Default clock of the engine which is based on {@link System#nanoTime()}.
+ * <p>
+ * In contrast to {@link System#currentTimeMillis()} this clock is monotonic and has a much
+ * finer granularity. It doesn't jump if the wall-clock of the device is adjusted.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class NanoClock implements EngineClock {
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public long sleepUntil(long deadline) {
+        long now = System.nanoTime();
+        while (now < deadline) {
+            LockSupport.parkNanos(deadline - now);
+            if (Thread.currentThread().isInterrupted()) {
+                break;
+            }
+            now = System.nanoTime();
+        }
+        return now;
+    }
+}
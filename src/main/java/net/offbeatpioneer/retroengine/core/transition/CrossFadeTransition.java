@@ -0,0 +1,29 @@
+package net.offbeatpioneer.retroengine.core.transition;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Fades out the outgoing state while the incoming state is shown underneath
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class CrossFadeTransition extends StateTransition {
+
+    /**
+     * Constructor
+     *
+     * @param duration duration of the transition in milliseconds
+     */
+    public CrossFadeTransition(long duration) {
+        super(duration);
+    }
+
+    @Override
+    public void drawOutgoing(Canvas canvas, Bitmap snapshot, Paint paint, float progress) {
+        paint.setAlpha((int) (255 * (1f - progress)));
+        canvas.drawBitmap(snapshot, 0, 0, paint);
+    }
+}
@@ -0,0 +1,62 @@
+package net.offbeatpioneer.retroengine.core.transition;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * The incoming state pushes the outgoing state out of the drawing surface
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class SlideTransition extends StateTransition {
+
+    /**
+     * Direction in which the states are moved
+     */
+    public enum Direction {
+        LEFT(-1, 0), RIGHT(1, 0), UP(0, -1), DOWN(0, 1);
+
+        private final int dx;
+        private final int dy;
+
+        Direction(int dx, int dy) {
+            this.dx = dx;
+            this.dy = dy;
+        }
+    }
+
+    private final Direction direction;
+
+    /**
+     * Constructor
+     *
+     * @param duration  duration of the transition in milliseconds
+     * @param direction direction in which the states are moved
+     */
+    public SlideTransition(long duration, Direction direction) {
+        super(duration);
+        if (direction == null) {
+            throw new IllegalArgumentException("The direction must not be null");
+        }
+        this.direction = direction;
+    }
+
+    @Override
+    public void applyIncoming(Canvas canvas, float progress, int width, int height) {
+        // the incoming state starts on the opposite side
+        float remaining = 1f - progress;
+        canvas.translate(-direction.dx * width * remaining, -direction.dy * height * remaining);
+    }
+
+    @Override
+    public void drawOutgoing(Canvas canvas, Bitmap snapshot, Paint paint, float progress) {
+        canvas.drawBitmap(snapshot, direction.dx * snapshot.getWidth() * progress,
+                direction.dy * snapshot.getHeight() * progress, paint);
+    }
+
+    public Direction getDirection() {
+        return direction;
+    }
+}
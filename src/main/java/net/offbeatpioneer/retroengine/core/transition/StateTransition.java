@@ -0,0 +1,63 @@
+package net.offbeatpioneer.retroengine.core.transition;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Animated transition between two states (see {@link net.offbeatpioneer.retroengine.core.StateManager#changeGameState(Class, StateTransition)}).
+ * <p>
+ * The last frame of the outgoing state is captured once into a snapshot. During the transition only the
+ * incoming state is updated and rendered, the snapshot is composited over it. A transition defines how
+ * the canvas is transformed for the incoming state and how the snapshot is drawn.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public abstract class StateTransition {
+
+    private final long duration;
+
+    /**
+     * Constructor
+     *
+     * @param duration duration of the transition in milliseconds
+     */
+    protected StateTransition(long duration) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("The duration must be positive");
+        }
+        this.duration = duration;
+    }
+
+    /**
+     * Transform the canvas before the incoming state is rendered. The canvas is restored afterwards.
+     * The default implementation does nothing.
+     *
+     * @param canvas   the canvas
+     * @param progress progress of the transition between 0 and 1
+     * @param width    logical width of the drawing surface
+     * @param height   logical height of the drawing surface
+     */
+    public void applyIncoming(Canvas canvas, float progress, int width, int height) {
+    }
+
+    /**
+     * Draw the snapshot of the outgoing state over the incoming state
+     *
+     * @param canvas   the canvas
+     * @param snapshot last frame of the outgoing state in the logical size of the drawing surface
+     * @param paint    paint for the snapshot, the alpha value can be changed
+     * @param progress progress of the transition between 0 and 1
+     */
+    public abstract void drawOutgoing(Canvas canvas, Bitmap snapshot, Paint paint, float progress);
+
+    /**
+     * Duration of the transition
+     *
+     * @return duration in milliseconds
+     */
+    public long getDuration() {
+        return duration;
+    }
+}
@@ -0,0 +1,135 @@
+package net.offbeatpioneer.retroengine.core.transition;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+
+/**
+ * Plays a {@link StateTransition} on the game loop.
+ * <p>
+ * The snapshot of the outgoing state is drawn into a bitmap which is reused for all following
+ * transitions as long as the size of the drawing surface doesn't change. While a transition is
+ * running, the game loop wraps the render call of the incoming state with
+ * {@link TransitionCompositor#beginIncoming(Canvas, long)} and {@link TransitionCompositor#endIncoming(Canvas, int)}.
+ * <p>
+ * The capture and the composition are both done by the render thread, the capture while it is paused
+ * for the state change (see {@link net.offbeatpioneer.retroengine.core.StateManager#captureTransition(android.graphics.Picture)}).
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class TransitionCompositor {
+
+    /**
+     * Returned by {@link TransitionCompositor#beginIncoming(Canvas, long)} if no transition is running
+     */
+    public static final int NOT_RUNNING = -1;
+    private static final long NOT_STARTED = Long.MIN_VALUE;
+
+    private final Paint snapshotPaint = new Paint();
+    private Bitmap snapshot;
+    private Canvas snapshotCanvas;
+    private volatile StateTransition transition = null;
+    private long startNanos = NOT_STARTED;
+    private float progress = 0;
+
+    /**
+     * Prepare the snapshot bitmap for the capture of the outgoing state. A running transition is stopped.
+     *
+     * @param width  logical width of the drawing surface
+     * @param height logical height of the drawing surface
+     * @return canvas of the snapshot, the outgoing state must be rendered into it
+     */
+    public Canvas beginCapture(int width, int height) {
+        transition = null;
+        if (snapshot == null || snapshot.isRecycled() || snapshot.getWidth() != width || snapshot.getHeight() != height) {
+            if (snapshot != null) {
+                snapshot.recycle();
+            }
+            snapshot = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            snapshotCanvas = new Canvas(snapshot);
+        }
+        snapshot.eraseColor(Color.BLACK);
+        return snapshotCanvas;
+    }
+
+    /**
+     * Start the transition with the captured snapshot. The time of the transition starts with the
+     * first frame of the incoming state.
+     *
+     * @param transition the transition to play
+     */
+    public void endCapture(StateTransition transition) {
+        startNanos = NOT_STARTED;
+        progress = 0;
+        this.transition = transition;
+    }
+
+    /**
+     * Check if a transition is running
+     *
+     * @return true, if the snapshot of the outgoing state is still visible
+     */
+    public boolean isRunning() {
+        return transition != null;
+    }
+
+    /**
+     * Called by the game loop before the incoming state is rendered. The canvas is transformed by
+     * the transition.
+     *
+     * @param canvas canvas of the frame
+     * @param now    current time of the engine in nanoseconds
+     * @return save count to pass to {@link TransitionCompositor#endIncoming(Canvas, int)}, or
+     * {@link TransitionCompositor#NOT_RUNNING} if no transition is running (anymore)
+     */
+    public int beginIncoming(Canvas canvas, long now) {
+        StateTransition current = transition;
+        if (current == null) {
+            return NOT_RUNNING;
+        }
+        if (startNanos == NOT_STARTED) {
+            startNanos = now;
+        }
+        progress = (now - startNanos) / (current.getDuration() * 1000000f);
+        if (progress >= 1f) {
+            transition = null;
+            return NOT_RUNNING;
+        }
+        int saveCount = canvas.save();
+        current.applyIncoming(canvas, progress, snapshot.getWidth(), snapshot.getHeight());
+        return saveCount;
+    }
+
+    /**
+     * Called by the game loop after the incoming state is rendered. The snapshot of the outgoing
+     * state is drawn over it.
+     *
+     * @param canvas    canvas of the frame
+     * @param saveCount value returned by {@link TransitionCompositor#beginIncoming(Canvas, long)}
+     */
+    public void endIncoming(Canvas canvas, int saveCount) {
+        StateTransition current = transition;
+        canvas.restoreToCount(saveCount);
+        if (current != null) {
+            snapshotPaint.setAlpha(255);
+            snapshotPaint.setFilterBitmap(RetroEngine.isFilterBitmap());
+            current.drawOutgoing(canvas, snapshot, snapshotPaint, progress);
+        }
+    }
+
+    /**
+     * Stop a running transition and free the snapshot bitmap
+     */
+    public void release() {
+        transition = null;
+        if (snapshot != null) {
+            snapshot.recycle();
+            snapshot = null;
+            snapshotCanvas = null;
+        }
+    }
+}
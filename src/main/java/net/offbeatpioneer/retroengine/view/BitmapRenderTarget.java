@@ -0,0 +1,87 @@
+package net.offbeatpioneer.retroengine.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+/**
+ * Offscreen render target which draws into a {@link Bitmap}. No window or {@link android.view.SurfaceView}
+ * is needed, so it can be used for benchmarks and tests on a plain JVM (e.g. with Robolectric).
+ * <p>
+ * The content of the bitmap is kept between the frames like on a real surface.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class BitmapRenderTarget implements RenderTarget {
+
+    private final Bitmap bitmap;
+    private final Canvas canvas;
+    private int saveCount;
+    private long frameCount = 0;
+
+    /**
+     * Constructor
+     *
+     * @param width  width of the bitmap in pixels
+     * @param height height of the bitmap in pixels
+     */
+    public BitmapRenderTarget(int width, int height) {
+        this.bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        this.canvas = new Canvas(bitmap);
+    }
+
+    @Override
+    public boolean isValid() {
+        return !bitmap.isRecycled();
+    }
+
+    @Override
+    public Canvas lockCanvas(Rect dirty) {
+        if (bitmap.isRecycled()) {
+            return null;
+        }
+        // transformations and clipping of a frame must not leak into the next one
+        saveCount = canvas.save();
+        if (dirty != null) {
+            canvas.clipRect(dirty);
+        }
+        return canvas;
+    }
+
+    @Override
+    public void unlockCanvasAndPost(Canvas canvas) {
+        canvas.restoreToCount(saveCount);
+        frameCount++;
+    }
+
+    /**
+     * Bitmap which contains the last posted frame
+     *
+     * @return the bitmap
+     */
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    public int getWidth() {
+        return bitmap.getWidth();
+    }
+
+    public int getHeight() {
+        return bitmap.getHeight();
+    }
+
+    /**
+     * Number of frames posted to this target
+     *
+     * @return frame count
+     */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public void recycle() {
+        bitmap.recycle();
+    }
+}
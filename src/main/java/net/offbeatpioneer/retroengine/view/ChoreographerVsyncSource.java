@@ -0,0 +1,83 @@
+package net.offbeatpioneer.retroengine.view;
+
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.view.Choreographer;
+
+/**
+ * Vsync source which is based on the {@link Choreographer} of the system.
+ * <p>
+ * The {@link Choreographer} delivers its frame callbacks only on a thread with a
+ * {@link android.os.Looper}. Therefore a small {@link HandlerThread} receives the callbacks and
+ * wakes up the thread that is waiting in {@link ChoreographerVsyncSource#awaitNextVsync()}.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class ChoreographerVsyncSource implements VsyncSource, Choreographer.FrameCallback {
+
+    private HandlerThread looperThread;
+    private Handler handler;
+    private Choreographer choreographer;
+    private final Object signal = new Object();
+    private long frameCount = 0;
+    private long lastFrameTime = 0;
+    private long consumedFrameCount = 0;
+    private volatile boolean running = false;
+
+    @Override
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        looperThread = new HandlerThread("VsyncThread");
+        looperThread.start();
+        handler = new Handler(looperThread.getLooper());
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                // the choreographer is bound to the looper of the calling thread
+                choreographer = Choreographer.getInstance();
+                choreographer.postFrameCallback(ChoreographerVsyncSource.this);
+            }
+        });
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        synchronized (signal) {
+            frameCount++;
+            lastFrameTime = frameTimeNanos;
+            signal.notifyAll();
+        }
+        if (running) {
+            choreographer.postFrameCallback(this);
+        }
+    }
+
+    @Override
+    public long awaitNextVsync() throws InterruptedException {
+        synchronized (signal) {
+            while (running && frameCount == consumedFrameCount) {
+                signal.wait();
+            }
+            consumedFrameCount = frameCount;
+            return lastFrameTime;
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        if (looperThread != null) {
+            // no further frame callbacks are delivered after the looper quits
+            looperThread.quit();
+            looperThread = null;
+            handler = null;
+        }
+    }
+}
@@ -150,10 +150,23 @@ public class DrawView extends SurfaceView implements SurfaceHolder.Callback, Sen
         this.touchListener = touchListener;
     }
 
+    /**
+     * Set the logical size of the drawing surface in {@link RetroEngine}. If the render thread
+     * uses a lower resolution (see {@link RenderThread#setRenderScale(float)}) the size is
+     * calculated back to the size of the view.
+     *
+     * @param holder holder of the surface
+     */
     public void initSurfaceSize(final SurfaceHolder holder) {
         Canvas tmp = holder.lockCanvas();
-        RetroEngine.H = tmp.getHeight();
-        RetroEngine.W = tmp.getWidth();
+        float scale = renderThread != null ? renderThread.getRenderScale() : 1f;
+        if (scale == 1f) {
+            RetroEngine.H = tmp.getHeight();
+            RetroEngine.W = tmp.getWidth();
+        } else {
+            RetroEngine.H = Math.round(tmp.getHeight() / scale);
+            RetroEngine.W = Math.round(tmp.getWidth() / scale);
+        }
         holder.unlockCanvasAndPost(tmp);
     }
 
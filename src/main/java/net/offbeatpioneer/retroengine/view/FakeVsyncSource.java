@@ -0,0 +1,115 @@
+package net.offbeatpioneer.retroengine.view;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.time.EngineClock;
+
+/**
+ * Vsync source without a display, e.g. for tests or an offscreen rendering.
+ * <p>
+ * The source can run in two modes:
+ * <ul>
+ * <li>periodic: a signal is generated with the specified refresh rate based on the engine clock or
+ * the clock passed to the constructor. The source waits with {@link EngineClock#sleepUntil(long)}, so a
+ * {@link net.offbeatpioneer.retroengine.core.time.ManualClock} is advanced to the time of the signal instead.</li>
+ * <li>manual: a signal is only generated if {@link FakeVsyncSource#pulse(long)} is called</li>
+ * </ul>
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class FakeVsyncSource implements VsyncSource {
+
+    private final long periodNanos;
+    private final EngineClock clock;
+    private final Object signal = new Object();
+    private long nextVsync = 0;
+    private long frameCount = 0;
+    private long consumedFrameCount = 0;
+    private long lastFrameTime = 0;
+    private volatile boolean running = false;
+
+    /**
+     * Vsync source in the manual mode. Signals are only generated by calling
+     * {@link FakeVsyncSource#pulse(long)}.
+     */
+    public FakeVsyncSource() {
+        this(0);
+    }
+
+    /**
+     * Vsync source in the periodic mode.
+     *
+     * @param refreshRate refresh rate of the simulated display in Hz, 0 for the manual mode
+     */
+    public FakeVsyncSource(int refreshRate) {
+        this(refreshRate, null);
+    }
+
+    /**
+     * Vsync source in the periodic mode with an own clock.
+     *
+     * @param refreshRate refresh rate of the simulated display in Hz, 0 for the manual mode
+     * @param clock       time source of the signals, {@code null} for the engine clock
+     */
+    public FakeVsyncSource(int refreshRate, EngineClock clock) {
+        this.periodNanos = refreshRate > 0 ? 1000000000L / refreshRate : 0;
+        this.clock = clock;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        nextVsync = clock().nanoTime() + periodNanos;
+    }
+
+    private EngineClock clock() {
+        return clock != null ? clock : RetroEngine.getClock();
+    }
+
+    /**
+     * Generate a vsync signal manually
+     *
+     * @param frameTimeNanos time of the signal
+     */
+    public void pulse(long frameTimeNanos) {
+        synchronized (signal) {
+            frameCount++;
+            lastFrameTime = frameTimeNanos;
+            signal.notifyAll();
+        }
+    }
+
+    @Override
+    public long awaitNextVsync() throws InterruptedException {
+        if (periodNanos > 0) {
+            long now = clock().sleepUntil(nextVsync);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+            long vsync = nextVsync;
+            // skip missed signals like a real display
+            long missed = (now - nextVsync) / periodNanos;
+            nextVsync += (missed + 1) * periodNanos;
+            return vsync + missed * periodNanos;
+        }
+        synchronized (signal) {
+            while (running && frameCount == consumedFrameCount) {
+                signal.wait();
+            }
+            consumedFrameCount = frameCount;
+            return lastFrameTime;
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    public long getPeriodNanos() {
+        return periodNanos;
+    }
+}
@@ -0,0 +1,178 @@
+package net.offbeatpioneer.retroengine.view;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.time.EngineClock;
+
+/**
+ * Controls the time when the {@link RenderThread} renders the next frame.
+ * <p>
+ * Without a frame pacer the render thread relies on a blocking {@code lockCanvas} call and
+ * renders frames as fast as possible. A frame pacer aligns the frames to the vsync signal
+ * of a {@link VsyncSource} and/or limits the frame rate to a target value. This results in
+ * a more even frame delivery and saves battery, because the thread sleeps between the frames.
+ * <p>
+ * If no vsync source is set, the pacer sleeps until the next frame is due according to the target frame rate.
+ * If a vsync source is set, vsync signals are skipped until the time of the target frame rate has elapsed.
+ * <p>
+ * The pacer never mixes two timebases: with a vsync source all frame times are the timestamps of the
+ * vsync signals, without one they are read from the clock of the pacer (the engine clock by default).
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class FramePacer {
+
+    private final VsyncSource vsyncSource;
+    private final EngineClock clock;
+    private int targetFps;
+    private long frameIntervalNanos;
+    private long lastFrameTime = 0;
+    private long nextFrameTime = 0;
+    private boolean hasFrame = false;
+    private boolean started = false;
+
+    /**
+     * Frame pacer which aligns the frames to the vsync signals of the display.
+     * The frame rate isn't limited.
+     */
+    public FramePacer() {
+        this(new ChoreographerVsyncSource(), 0);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param vsyncSource source of the vsync signal, can be {@code null}
+     * @param targetFps   maximum frame rate, 0 for no limit
+     */
+    public FramePacer(VsyncSource vsyncSource, int targetFps) {
+        this(vsyncSource, targetFps, null);
+    }
+
+    /**
+     * Constructor
+     *
+     * @param vsyncSource source of the vsync signal, can be {@code null}
+     * @param targetFps   maximum frame rate, 0 for no limit
+     * @param clock       clock for the frame rate limit without a vsync source, {@code null} for the engine clock
+     */
+    public FramePacer(VsyncSource vsyncSource, int targetFps, EngineClock clock) {
+        this.vsyncSource = vsyncSource;
+        this.clock = clock;
+        setTargetFps(targetFps);
+    }
+
+    /**
+     * Frame pacer without a vsync source. It only limits the frame rate.
+     *
+     * @param targetFps maximum frame rate
+     * @return the frame pacer
+     */
+    public static FramePacer withFpsCap(int targetFps) {
+        return new FramePacer(null, targetFps);
+    }
+
+    /**
+     * Called by the {@link RenderThread} when the loop is started
+     */
+    public void start() {
+        if (vsyncSource != null) {
+            vsyncSource.start();
+            // the first signal is never skipped because there is no previous frame in its timebase
+            hasFrame = false;
+        } else {
+            lastFrameTime = clock().nanoTime();
+            nextFrameTime = lastFrameTime;
+            hasFrame = true;
+        }
+        started = true;
+    }
+
+    /**
+     * Called by the {@link RenderThread} when the loop is finished
+     */
+    public void stop() {
+        started = false;
+        if (vsyncSource != null) {
+            vsyncSource.stop();
+        }
+    }
+
+    /**
+     * Block until the next frame should be rendered
+     *
+     * @return time of the frame in nanoseconds
+     */
+    public long awaitFrame() {
+        if (!started) {
+            start();
+        }
+        long frameTime;
+        if (vsyncSource != null) {
+            frameTime = awaitVsyncFrame();
+        } else {
+            frameTime = awaitTimedFrame();
+        }
+        lastFrameTime = frameTime;
+        hasFrame = true;
+        return frameTime;
+    }
+
+    private long awaitVsyncFrame() {
+        try {
+            long vsync = vsyncSource.awaitNextVsync();
+            if (frameIntervalNanos > 0 && hasFrame) {
+                // tolerance of a quarter frame so that a jittering vsync doesn't cause a skipped frame
+                long minInterval = frameIntervalNanos - frameIntervalNanos / 4;
+                while (vsync - lastFrameTime < minInterval && started) {
+                    vsync = vsyncSource.awaitNextVsync();
+                }
+            }
+            return vsync;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // stay in the timebase of the vsync source
+            return lastFrameTime;
+        }
+    }
+
+    private long awaitTimedFrame() {
+        EngineClock clock = clock();
+        if (frameIntervalNanos <= 0) {
+            return clock.nanoTime();
+        }
+        nextFrameTime += frameIntervalNanos;
+        long now = clock.nanoTime();
+        if (nextFrameTime < now - frameIntervalNanos) {
+            // fell behind more than a frame, don't try to catch up
+            nextFrameTime = now;
+        }
+        return clock.sleepUntil(nextFrameTime);
+    }
+
+    private EngineClock clock() {
+        return clock != null ? clock : RetroEngine.getClock();
+    }
+
+    public int getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * Set the maximum frame rate
+     *
+     * @param targetFps maximum frame rate, 0 for no limit
+     */
+    public void setTargetFps(int targetFps) {
+        this.targetFps = Math.max(0, targetFps);
+        this.frameIntervalNanos = this.targetFps > 0 ? 1000000000L / this.targetFps : 0;
+    }
+
+    public EngineClock getClock() {
+        return clock;
+    }
+
+    public VsyncSource getVsyncSource() {
+        return vsyncSource;
+    }
+}
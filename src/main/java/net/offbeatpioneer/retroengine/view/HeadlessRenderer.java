@@ -0,0 +1,360 @@
+package net.offbeatpioneer.retroengine.view;
+
+import android.graphics.Paint;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.profiling.FrameProfiler;
+import net.offbeatpioneer.retroengine.core.profiling.RollingHistogram;
+import net.offbeatpioneer.retroengine.core.render.RenderCommandBuffer;
+import net.offbeatpioneer.retroengine.core.replay.InputLog;
+import net.offbeatpioneer.retroengine.core.replay.InputLogReader;
+import net.offbeatpioneer.retroengine.core.states.State;
+import net.offbeatpioneer.retroengine.core.time.EngineClock;
+import net.offbeatpioneer.retroengine.core.time.ManualClock;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives a {@link State} for a fixed number of ticks into an offscreen {@link BitmapRenderTarget}.
+ * No {@link DrawView} is needed and everything runs on the calling thread, so it can be used to measure
+ * the ticks per second and the cost of a frame in tests and benchmarks on a plain JVM (e.g. with Robolectric).
+ * <p>
+ * Each frame is rendered by the frame method of the serial loop of a {@link RenderThread} which isn't started
+ * ({@link HeadlessRenderer#getRenderThread()}): fixed timestep, suspended states, transitions and the
+ * dirty-rectangle mode behave like on a device. The time of the engine is advanced by a {@link ManualClock}
+ * by one tick per frame, so the simulation is deterministic and independent of how long a frame actually takes.
+ * The phases are also recorded by the {@link FrameProfiler} if it is enabled.
+ * <p>
+ * A session recorded with an {@link net.offbeatpioneer.retroengine.core.replay.InputRecorder}
+ * can be replayed with {@link HeadlessRenderer#replay(State, InputLogReader)}.
+ * <p>
+ * {@link HeadlessRenderer#compareMeshBatching(State, int)} compares the drawing of each sprite with a
+ * bitmap draw call against the drawing with meshes.
+ * <p>
+ * While running, the logical size of the drawing surface ({@link RetroEngine#W}, {@link RetroEngine#H})
+ * and the clock of the engine are replaced. They are restored afterwards.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class HeadlessRenderer {
+    // number of the last frames of a run whose timings are evaluated
+    private static final int FRAME_WINDOW_SIZE = 4096;
+
+    private final BitmapRenderTarget target;
+    private final RenderThread renderThread;
+    private final RollingHistogram frameTimes = new RollingHistogram(FRAME_WINDOW_SIZE);
+    private final Paint paint = new Paint();
+    private int oldW;
+    private int oldH;
+
+    /**
+     * Constructor
+     *
+     * @param width  width of the offscreen surface
+     * @param height height of the offscreen surface
+     */
+    public HeadlessRenderer(int width, int height) {
+        this(new BitmapRenderTarget(width, height));
+    }
+
+    public HeadlessRenderer(BitmapRenderTarget target) {
+        this.target = target;
+        this.renderThread = new RenderThread(target, -1);
+    }
+
+    /**
+     * Initialise the state and run it for the given number of ticks. One frame is rendered per tick.
+     * The initialisation isn't included in the measurement. The timings of the last frames are
+     * evaluated if there are more than 4096 ticks.
+     *
+     * @param state state to run
+     * @param ticks number of ticks
+     * @return the measured timings
+     */
+    public BenchmarkResult run(State state, int ticks) {
+        if (ticks <= 0) {
+            throw new IllegalArgumentException("ticks must be greater than 0");
+        }
+        ManualClock clock = new ManualClock();
+        EngineClock oldClock = begin(clock);
+        try {
+            state.init();
+            frameTimes.reset();
+            renderThread.resetTimestep(clock.nanoTime());
+            int done = 0;
+            long start = System.nanoTime();
+            while (done < ticks) {
+                // the state may change its tick rate during an update
+                clock.advance(TimeUnit.SECONDS.toNanos(1) / state.getTicksPerSecond());
+                frameTimes.record(frame(state, clock, RenderThread.TIMESTEP_TICKS));
+                done += renderThread.getLastFrameTicks();
+            }
+            return new BenchmarkResult(done, System.nanoTime() - start, frameTimes);
+        } finally {
+            end(oldClock);
+        }
+    }
+
+    /**
+     * Replay a session recorded by an {@link net.offbeatpioneer.retroengine.core.replay.InputRecorder}.
+     * The clock of the engine is set to the recorded time of each tick and the recorded input events are
+     * dispatched to the state ({@link State#onTouchEvent(View, MotionEvent)}, {@link State#onKeyEvent(View, int, KeyEvent)})
+     * before the logic update of the following tick. The view argument of the events is {@code null}.
+     * One frame with exactly one logic update is rendered per recorded tick, the fixed timestep isn't used
+     * because the recorded ticks already are its result.
+     * <p>
+     * The state should be in the same condition as at the beginning of the recording, it is initialised
+     * before the first tick. The initialisation isn't included in the measurement.
+     *
+     * @param state state to run
+     * @param log   the recorded session
+     * @return the measured timings
+     * @throws IOException if the log can't be read
+     */
+    public BenchmarkResult replay(State state, InputLogReader log) throws IOException {
+        ManualClock clock = new ManualClock(log.getStartNanos());
+        EngineClock oldClock = begin(clock);
+        try {
+            state.init();
+            frameTimes.reset();
+            renderThread.resetTimestep(clock.nanoTime());
+            int ticks = 0;
+            long start = System.nanoTime();
+            int type;
+            while ((type = log.next()) != InputLog.END) {
+                switch (type) {
+                    case InputLog.TICK:
+                        clock.set(log.getTickNanos());
+                        frameTimes.record(frame(state, clock, 1));
+                        ticks++;
+                        break;
+                    case InputLog.TOUCH:
+                        state.onTouchEvent(null, log.getMotionEvent());
+                        break;
+                    case InputLog.KEY:
+                        KeyEvent keyEvent = log.getKeyEvent();
+                        state.onKeyEvent(null, keyEvent.getKeyCode(), keyEvent);
+                        break;
+                }
+            }
+            return new BenchmarkResult(ticks, System.nanoTime() - start, frameTimes);
+        } finally {
+            end(oldClock);
+        }
+    }
+
+    /**
+     * Run a state twice for the given number of ticks: first each sprite is drawn with its own draw call,
+     * then the sprites are drawn with mesh batching ({@link RenderCommandBuffer#setMeshBatching(boolean)}).
+     * The state is initialised before and cleaned up after each run. The command buffer of the state is
+     * restored afterwards.
+     *
+     * @param state state to run
+     * @param ticks number of ticks per run
+     * @return the timings of both runs
+     */
+    public BatchingComparison compareMeshBatching(State state, int ticks) {
+        RenderCommandBuffer previous = state.getCommandBuffer();
+        try {
+            state.setCommandBuffer(null);
+            BenchmarkResult perSprite = run(state, ticks);
+            state.cleanUp();
+
+            RenderCommandBuffer buffer = new RenderCommandBuffer();
+            buffer.setSortByTexture(previous != null && previous.isSortByTexture());
+            buffer.setMeshBatching(true);
+            state.setCommandBuffer(buffer);
+            BenchmarkResult batched = run(state, ticks);
+            int commands = buffer.getCommandCount();
+            int drawCalls = buffer.getDrawCallCount();
+            state.cleanUp();
+            return new BatchingComparison(perSprite, batched, commands, drawCalls);
+        } finally {
+            state.setCommandBuffer(previous);
+        }
+    }
+
+    /**
+     * Replace the logical size and the clock of the engine
+     *
+     * @param clock the clock for the run
+     * @return the old clock
+     */
+    private EngineClock begin(EngineClock clock) {
+        oldW = RetroEngine.W;
+        oldH = RetroEngine.H;
+        EngineClock oldClock = RetroEngine.getClock();
+        RetroEngine.W = target.getWidth();
+        RetroEngine.H = target.getHeight();
+        RetroEngine.setClock(clock);
+        return oldClock;
+    }
+
+    private void end(EngineClock oldClock) {
+        RetroEngine.setClock(oldClock);
+        RetroEngine.W = oldW;
+        RetroEngine.H = oldH;
+    }
+
+    /**
+     * Render a frame with the render thread
+     *
+     * @param state the state
+     * @param clock clock of the run
+     * @param ticks number of logic updates or {@link RenderThread#TIMESTEP_TICKS}
+     * @return duration of the frame in nanoseconds
+     */
+    private long frame(State state, EngineClock clock, int ticks) {
+        long frameStart = System.nanoTime();
+        renderThread.renderFrame(state, target, clock, paint, ticks);
+        return System.nanoTime() - frameStart;
+    }
+
+    public BitmapRenderTarget getTarget() {
+        return target;
+    }
+
+    /**
+     * The render thread whose frames are used. It is never started, but can be configured, e.g. with
+     * {@link RenderThread#setDirtyRegionMode(boolean)} or {@link RenderThread#setQualityGovernor}.
+     *
+     * @return the render thread
+     */
+    public RenderThread getRenderThread() {
+        return renderThread;
+    }
+
+    /**
+     * Result of {@link HeadlessRenderer#compareMeshBatching(State, int)}
+     */
+    public static class BatchingComparison {
+        private final BenchmarkResult perSprite;
+        private final BenchmarkResult batched;
+        private final int commandCount;
+        private final int batchedDrawCallCount;
+
+        BatchingComparison(BenchmarkResult perSprite, BenchmarkResult batched, int commandCount, int batchedDrawCallCount) {
+            this.perSprite = perSprite;
+            this.batched = batched;
+            this.commandCount = commandCount;
+            this.batchedDrawCallCount = batchedDrawCallCount;
+        }
+
+        /**
+         * Timings of the run with one draw call per sprite
+         *
+         * @return the timings
+         */
+        public BenchmarkResult getPerSprite() {
+            return perSprite;
+        }
+
+        /**
+         * Timings of the run with mesh batching
+         *
+         * @return the timings
+         */
+        public BenchmarkResult getBatched() {
+            return batched;
+        }
+
+        /**
+         * Number of recorded sprites in the last frame of the batched run, the same as the draw calls
+         * of the run without batching
+         *
+         * @return command count
+         */
+        public int getCommandCount() {
+            return commandCount;
+        }
+
+        /**
+         * Number of draw calls in the last frame of the batched run
+         *
+         * @return draw call count
+         */
+        public int getBatchedDrawCallCount() {
+            return batchedDrawCallCount;
+        }
+
+        /**
+         * Ratio of the mean frame time without batching to the one with batching
+         *
+         * @return speedup, greater than 1 if batching is faster
+         */
+        public double getSpeedup() {
+            return batched.getMeanFrameNanos() == 0 ? 0 : (double) perSprite.getMeanFrameNanos() / batched.getMeanFrameNanos();
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "per sprite: %s%nbatched: %s%n%d sprites, %d draw calls, speedup %.2f",
+                    perSprite, batched, commandCount, batchedDrawCallCount, getSpeedup());
+        }
+    }
+
+    /**
+     * Timings of a run of the {@link HeadlessRenderer}
+     */
+    public static class BenchmarkResult {
+        private final int ticks;
+        private final long elapsedNanos;
+        private final long meanFrameNanos;
+        private final long medianFrameNanos;
+        private final long p95FrameNanos;
+
+        BenchmarkResult(int ticks, long elapsedNanos, RollingHistogram frameTimes) {
+            this.ticks = ticks;
+            this.elapsedNanos = elapsedNanos;
+            this.meanFrameNanos = frameTimes.getMean();
+            this.medianFrameNanos = frameTimes.getPercentile(50);
+            this.p95FrameNanos = frameTimes.getPercentile(95);
+        }
+
+        public int getTicks() {
+            return ticks;
+        }
+
+        /**
+         * Real time of the whole run
+         *
+         * @return time in nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Number of ticks (update and rendering) that were processed per second of real time
+         *
+         * @return ticks per second
+         */
+        public double getTicksPerSecond() {
+            return elapsedNanos == 0 ? 0 : ticks * 1e9 / elapsedNanos;
+        }
+
+        public long getMeanFrameNanos() {
+            return meanFrameNanos;
+        }
+
+        public long getMedianFrameNanos() {
+            return medianFrameNanos;
+        }
+
+        public long getP95FrameNanos() {
+            return p95FrameNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%d ticks, %.1f ticks/s, frame mean %.3f ms, p50 %.3f ms, p95 %.3f ms",
+                    ticks, getTicksPerSecond(), meanFrameNanos / 1e6, medianFrameNanos / 1e6, p95FrameNanos / 1e6);
+        }
+    }
+}
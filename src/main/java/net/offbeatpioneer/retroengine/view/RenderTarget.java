@@ -0,0 +1,41 @@
+package net.offbeatpioneer.retroengine.view;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+/**
+ * Drawing surface of the {@link RenderThread}. The canvas is acquired at the beginning of each
+ * frame and posted at the end of it.
+ * <p>
+ * On a device this is the surface of the {@link DrawView} ({@link SurfaceRenderTarget}). For
+ * benchmarks and tests the loop can render into a bitmap without a window ({@link BitmapRenderTarget}).
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public interface RenderTarget {
+
+    /**
+     * Check if the target can be drawn on
+     *
+     * @return true, if a canvas can be acquired
+     */
+    boolean isValid();
+
+    /**
+     * Acquire the canvas for the next frame. If a dirty rectangle is given, only this area has to be
+     * repainted. The content outside of it is kept from the last frame and the canvas is clipped.
+     * The target may enlarge the rectangle, the actual area is then written back to it.
+     *
+     * @param dirty area in pixels of the target that will be repainted or {@code null} for the whole target
+     * @return the canvas or {@code null} if it isn't available
+     */
+    Canvas lockCanvas(Rect dirty);
+
+    /**
+     * Finish the frame and release the canvas
+     *
+     * @param canvas canvas returned by {@link RenderTarget#lockCanvas(Rect)}
+     */
+    void unlockCanvasAndPost(Canvas canvas);
+}
@@ -2,6 +2,8 @@ package net.offbeatpioneer.retroengine.view;
 
 import android.graphics.Canvas;
 import android.graphics.Paint;
+import android.graphics.Picture;
+import android.graphics.Rect;
 import android.os.Handler;
 import android.util.Log;
 import android.view.SurfaceHolder;
@@ -9,6 +11,15 @@ import android.view.SurfaceView;
 
 import net.offbeatpioneer.retroengine.core.StateManager;
 import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.profiling.FramePhase;
+import net.offbeatpioneer.retroengine.core.profiling.FrameProfiler;
+import net.offbeatpioneer.retroengine.core.quality.QualityGovernor;
+import net.offbeatpioneer.retroengine.core.render.DirtyRegion;
+import net.offbeatpioneer.retroengine.core.time.EngineClock;
+import net.offbeatpioneer.retroengine.core.time.FixedTimestep;
+import net.offbeatpioneer.retroengine.core.transition.TransitionCompositor;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * {@link RenderThread} implements the main ("game") loop to render all the graphics specified
@@ -20,20 +31,78 @@ import net.offbeatpioneer.retroengine.core.RetroEngine;
  * <p>
  * The {@link RenderThread} will obtain the drawing surface of the {@link DrawView} component which
  * is in this a {@link Canvas} object. The active state will get this {@link Canvas} as argument
- * in its render method.
+ * in its render method. Instead of a view any other {@link RenderTarget} can be used, e.g. a
+ * {@link BitmapRenderTarget} to render offscreen.
+ * <p>
+ * The loop uses a fixed timestep: the logic of the active state is updated with the tick rate
+ * of the state ({@link net.offbeatpioneer.retroengine.core.states.State#getTicksPerSecond()})
+ * independent of the frame rate of the display. The remaining time between two ticks is passed
+ * as interpolation value to the render method of the state.
+ * <p>
+ * Optionally the thread can run in a pipelined mode (see {@link RenderThread#setPipelined(boolean)}).
+ * Then the logic update and the recording of the scene is done by a separate simulation thread while
+ * this thread only plays back the latest recorded snapshot on the surface.
+ * <p>
+ * The frames can be aligned to the vsync signal of the display and limited to a target frame
+ * rate with a {@link FramePacer} (see {@link RenderThread#setFramePacer(FramePacer)}).
+ * <p>
+ * The duration of the phases of each frame are recorded by the {@link FrameProfiler}.
+ * A {@link QualityGovernor} can be set to reduce the quality of the rendering if the frame budget is exceeded.
+ * <p>
+ * In the dirty-rectangle mode (see {@link RenderThread#setDirtyRegionMode(boolean)}) only the areas of the
+ * surface that changed since the last frame are repainted.
+ * <p>
+ * If a state change is animated with a {@link net.offbeatpioneer.retroengine.core.transition.StateTransition}
+ * the snapshot of the outgoing state is composited over the incoming state.
  *
  * @author Dominik Grzelak
  */
 public class RenderThread extends Thread {
 
     private static final String TAG_LOG = "RenderThread";
+    // maximum time in ms to wait for a new snapshot in the pipelined mode
+    private static final long MAX_SNAPSHOT_WAIT = 100;
+    private static final long FRAME_NOT_STARTED = Long.MAX_VALUE;
+    private static final long NO_TRANSITION = Long.MIN_VALUE;
+    // safety timeout in ms for the paused thread, it is normally woken up earlier
+    private static final long MAX_PAUSE_WAIT = 250;
+
+    /**
+     * Update the logic of a frame with the fixed timestep, see {@link RenderThread#renderFrame}
+     */
+    static final int TIMESTEP_TICKS = -1;
+    /**
+     * The frame was drawn and posted
+     */
+    static final int FRAME_POSTED = 0;
+    /**
+     * Nothing changed in the dirty-rectangle mode, no frame was drawn
+     */
+    static final int FRAME_UNCHANGED = 1;
+    /**
+     * No canvas was available, the frame is lost
+     */
+    static final int FRAME_DROPPED = 2;
 
     private StateManager manager = StateManager.getInstance();
+    private final TransitionCompositor transitions = manager.getTransitionCompositor();
+    private final FrameProfiler profiler = FrameProfiler.getInstance();
     private Class<?> currentState = null;
 
     private Handler handler;
-    final private SurfaceHolder mSurfaceHolder;
+    final private RenderTarget renderTarget;
     private final Object[] lock = new Object[]{};
+    private final FixedTimestep timestep = new FixedTimestep(RetroEngine.TICKS_PER_SECOND, RetroEngine.MAX_FRAMESKIP);
+    private boolean pipelined = false;
+    private FramePacer framePacer = null;
+    private QualityGovernor qualityGovernor = null;
+    private volatile float renderScale = 1f;
+    private long transitionStart = NO_TRANSITION;
+    private volatile boolean dirtyRegionMode = false;
+    private final DirtyRegion dirtyRegion = new DirtyRegion();
+    private final Rect dirtyRect = new Rect();
+    private boolean fullRedraw = true;
+    private int lastFrameTicks = 0;
 
     /**
      * Constructor of the rendering thread.
@@ -56,15 +125,26 @@ public class RenderThread extends Thread {
      * @param priority The value supplied must be from {@link Thread} and not from {@code java.lang.Process}.
      */
     public RenderThread(SurfaceView view, int priority) {
-        super("RenderThread");
-        this.mSurfaceHolder = view.getHolder();
+        this(new SurfaceRenderTarget(view.getHolder()), priority);
         ((DrawView) view).setRenderThread(this);
+    }
+
+    /**
+     * Constructor of the rendering thread for an arbitrary render target, e.g. an offscreen
+     * {@link BitmapRenderTarget}.
+     *
+     * @param renderTarget target from which the {@link Canvas} is acquired
+     * @param priority     The value supplied must be from {@link Thread} and not from {@code java.lang.Process}.
+     */
+    public RenderThread(RenderTarget renderTarget, int priority) {
+        super("RenderThread");
+        this.renderTarget = renderTarget;
         if (priority > 0)
             setPriority(priority);
     }
 
     public void addState(net.offbeatpioneer.retroengine.core.states.State state) {
-        this.manager.getGamestates().add(state);
+        this.manager.addGamestate(state);
     }
 
     public void addStates(net.offbeatpioneer.retroengine.core.states.State... states) {
@@ -101,60 +181,322 @@ public class RenderThread extends Thread {
      */
     @Override
     public void run() {
+        if (framePacer != null) {
+            framePacer.start();
+        }
+        try {
+            if (pipelined) {
+                runPipelined();
+            } else {
+                runSerial();
+            }
+        } finally {
+            if (framePacer != null) {
+                framePacer.stop();
+            }
+        }
+        cleanUp();
+    }
+
+    /**
+     * Logic update and rendering of the active state are done one after another on this thread.
+     */
+    private void runSerial() {
         net.offbeatpioneer.retroengine.core.states.State currentStateTmp = manager.getActiveGameState();
         Paint paint = new Paint();
-        long next_game_tick = RetroEngine.getTickCount();
-        int loops;
+        resetTimestep(RetroEngine.getNanoTime());
         while (RetroEngine.isRunning()) {
 
             if (RetroEngine.isShouldWait()) {
-                // check for state change and get the new state - if null break the loop
-                if (manager.isChangingState() && (currentStateTmp = manager.getActiveGameState()) != null) {
-                    RetroEngine.resumeRenderThread();
-                    manager.endStateChange();
+                net.offbeatpioneer.retroengine.core.states.State next = handlePause(null);
+                if (next != null) {
+                    currentStateTmp = next;
                 }
-                sleepThread(250);
+                // don't catch up the paused time
+                resetTimestep(RetroEngine.getNanoTime());
                 continue;
             }
 
-            loops = 0;
-            Canvas canvas = null;
-            try {
-                if (!mSurfaceHolder.getSurface().isValid()) continue;
-//                if (StateManager.IS_CHANGING.get()) continue;
-
-                while (RetroEngine.getTickCount() > next_game_tick && loops < RetroEngine.MAX_FRAMESKIP) {
-                    assert currentStateTmp != null;
-                    currentStateTmp.updateLogic();
-                    next_game_tick += RetroEngine.SKIP_TICKS;
-                    loops++;
+            if (!renderTarget.isValid()) continue;
+//            if (StateManager.IS_CHANGING.get()) continue;
+
+            if (framePacer != null) {
+                framePacer.awaitFrame();
+            }
+            assert currentStateTmp != null;
+            if (renderFrame(currentStateTmp, renderTarget, RetroEngine.getClock(), paint, TIMESTEP_TICKS) == FRAME_UNCHANGED) {
+                // no frame was drawn, sleep until the next tick can change something
+                awaitNextTick();
+            }
+        }
+    }
+
+    /**
+     * Restart the fixed timestep without catching up any time, e.g. at the start of the loop or after a pause.
+     * The next frame is drawn completely.
+     *
+     * @param now current time of the clock in nanoseconds
+     */
+    void resetTimestep(long now) {
+        timestep.reset(now);
+        lastFrameTicks = 0;
+        fullRedraw = true;
+    }
+
+    /**
+     * One frame of the serial mode: the logic updates of the state, the update of the suspended states
+     * and the rendering of the state stack, the state and a running transition into the target. In the
+     * dirty-rectangle mode only the damaged area is repainted. The phases are recorded by the
+     * {@link FrameProfiler} and the {@link QualityGovernor} is notified.
+     * <p>
+     * The {@link HeadlessRenderer} runs the same frames into a {@link BitmapRenderTarget} without starting the thread.
+     *
+     * @param state  the active state
+     * @param target target from which the {@link Canvas} is acquired
+     * @param clock  clock of the frame, the same as the engine clock
+     * @param paint  paint passed to the state
+     * @param ticks  {@link RenderThread#TIMESTEP_TICKS} to update the logic with the fixed timestep, otherwise the
+     *               exact number of logic updates (used to replay recorded ticks), the interpolation value is 0 then
+     * @return {@link RenderThread#FRAME_POSTED}, {@link RenderThread#FRAME_UNCHANGED} if nothing had to be repainted
+     * or {@link RenderThread#FRAME_DROPPED} if no canvas was available
+     */
+    int renderFrame(net.offbeatpioneer.retroengine.core.states.State state, RenderTarget target, EngineClock clock,
+                    Paint paint, int ticks) {
+        Canvas canvas = null;
+        long frameStart = FRAME_NOT_STARTED;
+        boolean unchanged = false;
+        try {
+            frameStart = profiler.begin();
+
+            long phaseStart = profiler.begin();
+            float alpha = 0f;
+            if (ticks == TIMESTEP_TICKS) {
+                timestep.setTickRate(state.getTicksPerSecond(), state.getMaxFrameSkip());
+                timestep.beginFrame(clock.nanoTime());
+                while (timestep.consumeTick()) {
+                    RetroEngine.onTick();
+                    state.updateLogic();
+                }
+                lastFrameTicks = timestep.getTicksThisFrame();
+                alpha = timestep.getAlpha();
+            } else {
+                for (int i = 0; i < ticks; i++) {
+                    RetroEngine.onTick();
+                    state.updateLogic();
+                }
+                lastFrameTicks = ticks;
+            }
+            long now = clock.nanoTime();
+            manager.updateSuspendedStates(now);
+            profiler.end(FramePhase.UPDATE, phaseStart);
+
+            Rect dirty = null;
+            if (dirtyRegionMode) {
+                dirty = collectDirtyRect(state);
+                if (dirty != null && dirty.isEmpty()) {
+                    // nothing changed, the last frame is still valid
+                    unchanged = true;
+                    return FRAME_UNCHANGED;
                 }
+            }
 
-                synchronized (lock) {
-                    canvas = mSurfaceHolder.lockCanvas(null);
-                    // Render the current state
-                    if (currentStateTmp != null && canvas != null) {
-                        canvas.clipRect(0, 0, RetroEngine.W, RetroEngine.H);
-                        currentStateTmp.render(canvas, paint, RetroEngine.getTickCount());
-                    }
+            synchronized (lock) {
+                phaseStart = profiler.begin();
+                canvas = target.lockCanvas(dirty);
+                profiler.end(FramePhase.CANVAS_WAIT, phaseStart);
+                if (canvas == null) {
+                    fullRedraw = true;
+                    return FRAME_DROPPED;
                 }
-            } finally {
-                // If an error occurred release the canvas
-                if (canvas != null) {
-                    mSurfaceHolder.unlockCanvasAndPost(canvas);
+                // Render the current state
+                long tickCount = TimeUnit.NANOSECONDS.toMillis(now);
+                applyRenderScale(canvas);
+                canvas.clipRect(0, 0, RetroEngine.W, RetroEngine.H);
+                int transition = transitions.beginIncoming(canvas, now);
+                manager.renderSuspendedStates(canvas, paint, tickCount);
+                state.render(canvas, paint, tickCount, alpha);
+                if (transition != TransitionCompositor.NOT_RUNNING) {
+                    transitions.endIncoming(canvas, transition);
                 }
             }
+            return FRAME_POSTED;
+        } finally {
+            // If an error occurred release the canvas
+            if (canvas != null) {
+                long phaseStart = profiler.begin();
+                target.unlockCanvasAndPost(canvas);
+                profiler.end(FramePhase.CANVAS_WAIT, phaseStart);
+            }
+            if (!unchanged && frameStart != FRAME_NOT_STARTED) {
+                recordStateTransition(canvas != null);
+                profiler.end(FramePhase.FRAME, frameStart);
+                profiler.endFrame();
+                if (qualityGovernor != null) {
+                    qualityGovernor.onFrame(state);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of logic updates of the last frame
+     *
+     * @return tick count of the frame
+     */
+    int getLastFrameTicks() {
+        return lastFrameTicks;
+    }
 
+    /**
+     * Block until the next tick of the fixed timestep is due. Used in the dirty-rectangle mode
+     * if a frame didn't change, so that a static screen doesn't keep the thread busy. A state
+     * change or {@link RetroEngine#wakeUpRenderThread()} ends the wait early.
+     */
+    private void awaitNextTick() {
+        long generation = RetroEngine.getWakeUpGeneration();
+        long stepNanos = timestep.getStepNanos();
+        long remaining = stepNanos - (long) (timestep.getAlpha() * stepNanos);
+        if (remaining > 0 && RetroEngine.isRunning() && !RetroEngine.isShouldWait()) {
+            RetroEngine.awaitWakeUpNanos(generation, remaining);
         }
-        cleanUp();
     }
 
-    private void sleepThread(long duration) {
-        Thread.yield();
+    /**
+     * The logic update and the recording of the scene is done by the {@link SimulationThread}.
+     * This thread only plays back the latest snapshot on the surface.
+     */
+    private void runPipelined() {
+        SceneSnapshotBuffer snapshotBuffer = new SceneSnapshotBuffer();
+        SimulationThread simulationThread = new SimulationThread(snapshotBuffer, getPriority());
+        simulationThread.start();
         try {
-            Thread.sleep(duration);
-        } catch (InterruptedException e) {
-            Log.e(TAG_LOG, e.toString(), e);
+            while (RetroEngine.isRunning()) {
+
+                if (RetroEngine.isShouldWait()) {
+                    if (handlePause(snapshotBuffer) != null) {
+                        snapshotBuffer.clear();
+                    }
+                    continue;
+                }
+
+                if (!renderTarget.isValid()) continue;
+                if (framePacer != null) {
+                    framePacer.awaitFrame();
+                }
+                Picture snapshot = snapshotBuffer.acquireLatest(MAX_SNAPSHOT_WAIT);
+                if (snapshot == null) continue;
+
+                Canvas canvas = null;
+                long frameStart = profiler.begin();
+                try {
+                    synchronized (lock) {
+                        long phaseStart = profiler.begin();
+                        canvas = renderTarget.lockCanvas(null);
+                        profiler.end(FramePhase.CANVAS_WAIT, phaseStart);
+                        if (canvas != null) {
+                            applyRenderScale(canvas);
+                            canvas.clipRect(0, 0, RetroEngine.W, RetroEngine.H);
+                            canvas.drawPicture(snapshot);
+                        }
+                    }
+                } finally {
+                    if (canvas != null) {
+                        long phaseStart = profiler.begin();
+                        renderTarget.unlockCanvasAndPost(canvas);
+                        profiler.end(FramePhase.CANVAS_WAIT, phaseStart);
+                    }
+                    recordStateTransition(canvas != null);
+                    profiler.end(FramePhase.FRAME, frameStart);
+                    profiler.endFrame();
+                    if (qualityGovernor != null) {
+                        qualityGovernor.onFrame(manager.getActiveGameState());
+                    }
+                }
+            }
+        } finally {
+            simulationThread.shutdown();
+            boolean retry = true;
+            while (retry) {
+                try {
+                    simulationThread.join();
+                    retry = false;
+                } catch (InterruptedException ignored) {
+                }
+            }
+        }
+    }
+
+    /**
+     * Called while the thread is paused. If a state change is completed the thread is resumed,
+     * otherwise it blocks until it is woken up by {@link RetroEngine#wakeUpRenderThread()}.
+     * <p>
+     * Before resuming, the outgoing states of a transition are captured. This thread is the only
+     * one that draws at this point. In the pipelined mode the last played back snapshot is used.
+     *
+     * @param snapshotBuffer snapshots of the pipelined mode or {@code null}
+     * @return the new active state if the thread was resumed after a state change, otherwise {@code null}
+     */
+    private net.offbeatpioneer.retroengine.core.states.State handlePause(SceneSnapshotBuffer snapshotBuffer) {
+        // read the generation first, so that a wake up signal during the check isn't lost
+        long generation = RetroEngine.getWakeUpGeneration();
+        net.offbeatpioneer.retroengine.core.states.State next;
+        if (manager.isChangingState() && manager.isStateChangeReady()
+                && (next = manager.getActiveGameState()) != null) {
+            transitionStart = manager.getStateChangeStart();
+            manager.captureTransition(snapshotBuffer != null ? snapshotBuffer.acquireLatest(0) : null);
+            RetroEngine.resumeRenderThread();
+            manager.endStateChange();
+            return next;
+        }
+        RetroEngine.awaitWakeUp(generation, MAX_PAUSE_WAIT);
+        return null;
+    }
+
+    /**
+     * Record the latency of a state change when the first frame of the new state was posted
+     *
+     * @param posted true, if a frame was posted
+     */
+    private void recordStateTransition(boolean posted) {
+        if (posted && transitionStart != NO_TRANSITION) {
+            profiler.recordStateTransition(System.nanoTime() - transitionStart);
+            transitionStart = NO_TRANSITION;
+        }
+    }
+
+    /**
+     * Collect the damaged areas of the state since the last frame
+     *
+     * @param state the active state
+     * @return the area of the surface to repaint, {@code null} for the whole surface
+     */
+    private Rect collectDirtyRect(net.offbeatpioneer.retroengine.core.states.State state) {
+        dirtyRegion.reset();
+        // the states of the state stack and the transitions aren't tracked
+        if (fullRedraw || manager.hasVisibleSuspendedStates() || transitions.isRunning()) {
+            dirtyRegion.invalidateAll();
+            fullRedraw = false;
+        }
+        state.collectDamage(dirtyRegion);
+        if (dirtyRegion.isFull()) {
+            return null;
+        }
+        float scale = renderScale;
+        int width = scale == 1f ? RetroEngine.W : Math.max(1, (int) (RetroEngine.W * scale));
+        int height = scale == 1f ? RetroEngine.H : Math.max(1, (int) (RetroEngine.H * scale));
+        dirtyRegion.toRect(dirtyRect, scale, width, height);
+        return dirtyRect;
+    }
+
+    /**
+     * Scale the canvas if the surface has a lower resolution than the logical size
+     * of the drawing surface ({@link RetroEngine#W}, {@link RetroEngine#H})
+     *
+     * @param canvas canvas of the surface
+     */
+    private void applyRenderScale(Canvas canvas) {
+        if (RetroEngine.W > 0 && RetroEngine.H > 0 && canvas.getWidth() != RetroEngine.W) {
+            canvas.scale((float) canvas.getWidth() / RetroEngine.W, (float) canvas.getHeight() / RetroEngine.H);
         }
     }
 
@@ -164,7 +506,138 @@ public class RenderThread extends Thread {
     public void cleanUp() {
         if (manager.getActiveGameState() != null)
             manager.getActiveGameState().cleanUp();
+        for (int i = manager.getStackSize() - 1; i >= 0; i--) {
+            manager.getSuspendedState(i).getState().cleanUp();
+        }
         manager.clearStates();
+        transitions.release();
+    }
+
+    /**
+     * Check if the pipelined mode is enabled
+     *
+     * @return true, if logic update and rendering run on separate threads
+     */
+    public boolean isPipelined() {
+        return pipelined;
+    }
+
+    /**
+     * Enable the pipelined mode. The logic of the active state is then updated on a separate
+     * simulation thread which records the render calls of the state after each tick into an
+     * immutable snapshot ({@link Picture}). This thread plays back the latest snapshot on the
+     * surface. On multi-core devices the simulation of the next tick overlaps with the rasterization
+     * of the current one.
+     * <p>
+     * All drawing of a state must happen in its render method, because the snapshot
+     * is recorded and not drawn directly on the surface. Bitmaps that are modified after they
+     * were drawn are copied into the snapshot.
+     * <p>
+     * The mode must be set before the thread is started.
+     *
+     * @param pipelined true, to enable the pipelined mode
+     */
+    public void setPipelined(boolean pipelined) {
+        if (isAlive()) {
+            throw new IllegalStateException("The mode can't be changed while the thread is running");
+        }
+        this.pipelined = pipelined;
+    }
+
+    public boolean isDirtyRegionMode() {
+        return dirtyRegionMode;
+    }
+
+    /**
+     * Enable the dirty-rectangle mode. Before each frame the active state reports the areas that
+     * changed since the last frame (see {@link net.offbeatpioneer.retroengine.core.states.State#collectDamage(DirtyRegion)}).
+     * Only the bounding rectangle of these areas is locked and repainted, the rest of the surface
+     * keeps the content of the last frame. If nothing changed no frame is drawn at all.
+     * This reduces the fill-rate and the power consumption of mostly static scenes.
+     * <p>
+     * The mode is ignored in the pipelined mode.
+     *
+     * @param dirtyRegionMode true, to repaint only the changed areas
+     */
+    public void setDirtyRegionMode(boolean dirtyRegionMode) {
+        this.dirtyRegionMode = dirtyRegionMode;
+        fullRedraw = true;
+    }
+
+    public FramePacer getFramePacer() {
+        return framePacer;
+    }
+
+    /**
+     * Set the frame pacer which controls when a frame is rendered. If {@code null} is set the
+     * frames are rendered as fast as the surface allows it.
+     * <p>
+     * The frame pacer must be set before the thread is started.
+     *
+     * @param framePacer the frame pacer or {@code null}
+     */
+    public void setFramePacer(FramePacer framePacer) {
+        if (isAlive()) {
+            throw new IllegalStateException("The frame pacer can't be changed while the thread is running");
+        }
+        this.framePacer = framePacer;
+    }
+
+    public QualityGovernor getQualityGovernor() {
+        return qualityGovernor;
+    }
+
+    /**
+     * Set the quality governor which is notified after every frame
+     *
+     * @param qualityGovernor the governor or {@code null}
+     */
+    public void setQualityGovernor(QualityGovernor qualityGovernor) {
+        this.qualityGovernor = qualityGovernor;
+    }
+
+    public float getRenderScale() {
+        return renderScale;
+    }
+
+    /**
+     * Change the resolution of the drawing surface relative to the size of the {@link DrawView}.
+     * The surface is upscaled by the system compositor, so a lower resolution saves fill-rate.
+     * The logical size ({@link RetroEngine#W}, {@link RetroEngine#H}) doesn't change, the canvas is
+     * scaled accordingly before a state is rendered.
+     * <p>
+     * The surface is resized on the UI thread, therefore the handler must be set. Only the
+     * resolution of a {@link SurfaceRenderTarget} can be changed.
+     *
+     * @param scale scale of the resolution between 0 and 1
+     */
+    public void setRenderScale(float scale) {
+        final float newScale = Math.max(0.1f, Math.min(1f, scale));
+        if (newScale == renderScale) {
+            return;
+        }
+        if (handler == null || !(renderTarget instanceof SurfaceRenderTarget)) {
+            Log.w(TAG_LOG, "Render scale can't be changed without a handler and a surface");
+            return;
+        }
+        final SurfaceHolder surfaceHolder = ((SurfaceRenderTarget) renderTarget).getSurfaceHolder();
+        renderScale = newScale;
+        fullRedraw = true;
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (newScale == 1f) {
+                    surfaceHolder.setSizeFromLayout();
+                } else {
+                    surfaceHolder.setFixedSize(Math.max(1, (int) (RetroEngine.W * newScale)),
+                            Math.max(1, (int) (RetroEngine.H * newScale)));
+                }
+            }
+        });
+    }
+
+    public RenderTarget getRenderTarget() {
+        return renderTarget;
     }
 
     public Handler getHandler() {
@@ -0,0 +1,113 @@
+package net.offbeatpioneer.retroengine.view;
+
+import android.graphics.Canvas;
+import android.graphics.Picture;
+
+/**
+ * Exchange of recorded scene snapshots between the {@link SimulationThread} and the
+ * {@link RenderThread} in the pipelined mode.
+ * <p>
+ * A snapshot is a {@link Picture} where the draw calls of a {@link net.offbeatpioneer.retroengine.core.states.State}
+ * are recorded after a logic update. A recorded picture is immutable and can be played back
+ * on another thread while the next tick is simulated.
+ * <p>
+ * Three pictures are used: the writer records into the back buffer, the reader plays back the
+ * front buffer and the pending buffer holds the latest published snapshot. Writer and reader
+ * never touch the same picture, so only the swap of the references is synchronized.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+class SceneSnapshotBuffer {
+    private Picture back = new Picture();
+    private Picture pending = new Picture();
+    private Picture front = new Picture();
+    private long backTick = 0;
+    private long pendingTick = 0;
+    private long frontTick = 0;
+    private boolean fresh = false;
+    private boolean hasFront = false;
+    private final Object swapLock = new Object();
+
+    /**
+     * Begin recording of a new snapshot. Only called by the writer.
+     *
+     * @param width  width of the drawing surface
+     * @param height height of the drawing surface
+     * @param tick   number of the simulated tick this snapshot represents
+     * @return canvas where the scene is drawn onto
+     */
+    Canvas beginRecording(int width, int height, long tick) {
+        backTick = tick;
+        return back.beginRecording(width, height);
+    }
+
+    /**
+     * Finish the recording and make the snapshot available for the reader. An older snapshot
+     * which was not consumed by the reader so far is dropped.
+     */
+    void publish() {
+        back.endRecording();
+        synchronized (swapLock) {
+            Picture tmp = pending;
+            pending = back;
+            back = tmp;
+            long tmpTick = pendingTick;
+            pendingTick = backTick;
+            backTick = tmpTick;
+            fresh = true;
+            swapLock.notifyAll();
+        }
+    }
+
+    /**
+     * Get the latest published snapshot. Waits for a new snapshot if none was published
+     * since the last call. Only called by the reader.
+     *
+     * @param timeoutMillis maximum waiting time
+     * @return latest snapshot or {@code null} if no snapshot was published yet
+     */
+    Picture acquireLatest(long timeoutMillis) {
+        synchronized (swapLock) {
+            if (!fresh && timeoutMillis > 0) {
+                try {
+                    swapLock.wait(timeoutMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (fresh) {
+                Picture tmp = front;
+                front = pending;
+                pending = tmp;
+                long tmpTick = frontTick;
+                frontTick = pendingTick;
+                pendingTick = tmpTick;
+                fresh = false;
+                hasFront = true;
+            }
+            return hasFront ? front : null;
+        }
+    }
+
+    /**
+     * Tick number of the snapshot that was returned by the last {@code acquireLatest} call
+     *
+     * @return tick number
+     */
+    long getFrontTick() {
+        synchronized (swapLock) {
+            return frontTick;
+        }
+    }
+
+    /**
+     * Discard all snapshots, e.g. after a state change
+     */
+    void clear() {
+        synchronized (swapLock) {
+            fresh = false;
+            hasFront = false;
+        }
+    }
+}
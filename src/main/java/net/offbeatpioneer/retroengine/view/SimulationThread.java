@@ -0,0 +1,116 @@
+package net.offbeatpioneer.retroengine.view;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.StateManager;
+import net.offbeatpioneer.retroengine.core.profiling.FramePhase;
+import net.offbeatpioneer.retroengine.core.profiling.FrameProfiler;
+import net.offbeatpioneer.retroengine.core.time.FixedTimestep;
+import net.offbeatpioneer.retroengine.core.transition.TransitionCompositor;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Simulation thread of the pipelined mode of the {@link RenderThread}.
+ * <p>
+ * The thread updates the logic of the active {@link net.offbeatpioneer.retroengine.core.states.State} with a fixed timestep. After each
+ * update the render method of the state is recorded into a snapshot of the {@link SceneSnapshotBuffer}.
+ * The {@link RenderThread} plays back the latest snapshot on the surface in the meantime. So the
+ * simulation of tick N+1 overlaps with the rasterization of tick N.
+ * <p>
+ * The recording happens at the time of the logic update, so the interpolation value that is passed
+ * to the state is always the one of the tick that was just simulated.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+class SimulationThread extends Thread {
+
+    // safety timeout in ms while paused, the thread is normally woken up earlier
+    private static final long PAUSE_WAIT = 250;
+
+    private final StateManager manager = StateManager.getInstance();
+    private final TransitionCompositor transitions = manager.getTransitionCompositor();
+    private final FrameProfiler profiler = FrameProfiler.getInstance();
+    private final SceneSnapshotBuffer snapshotBuffer;
+    private final FixedTimestep timestep = new FixedTimestep(RetroEngine.TICKS_PER_SECOND, RetroEngine.MAX_FRAMESKIP);
+    private final Paint paint = new Paint();
+    private volatile boolean stopped = false;
+    private long tick = 0;
+
+    SimulationThread(SceneSnapshotBuffer snapshotBuffer, int priority) {
+        super("SimulationThread");
+        this.snapshotBuffer = snapshotBuffer;
+        if (priority > 0)
+            setPriority(priority);
+    }
+
+    /**
+     * Stop the simulation. The thread finishes its current tick.
+     */
+    void shutdown() {
+        stopped = true;
+        LockSupport.unpark(this);
+        RetroEngine.wakeUpRenderThread();
+    }
+
+    @Override
+    public void run() {
+        timestep.reset(RetroEngine.getNanoTime());
+        net.offbeatpioneer.retroengine.core.states.State lastState = null;
+        while (RetroEngine.isRunning() && !stopped) {
+            net.offbeatpioneer.retroengine.core.states.State state = manager.getActiveGameState();
+            if (RetroEngine.isShouldWait() || state == null) {
+                // the render thread completes the state change and wakes up both threads
+                long generation = RetroEngine.getWakeUpGeneration();
+                if (RetroEngine.isShouldWait() || manager.getActiveGameState() == null) {
+                    RetroEngine.awaitWakeUp(generation, PAUSE_WAIT);
+                }
+                timestep.reset(RetroEngine.getNanoTime());
+                continue;
+            }
+            if (state != lastState) {
+                lastState = state;
+                snapshotBuffer.clear();
+                timestep.reset(RetroEngine.getNanoTime());
+                record(state);
+                continue;
+            }
+
+            timestep.setTickRate(state.getTicksPerSecond(), state.getMaxFrameSkip());
+            timestep.beginFrame(RetroEngine.getNanoTime());
+            boolean updated = false;
+            long start = profiler.begin();
+            while (timestep.consumeTick()) {
+                RetroEngine.onTick();
+                state.updateLogic();
+                tick++;
+                updated = true;
+            }
+            manager.updateSuspendedStates(RetroEngine.getNanoTime());
+            profiler.end(FramePhase.UPDATE, start);
+
+            if (updated) {
+                record(state);
+            } else {
+                // sleep until the next tick is due
+                long remaining = timestep.getStepNanos() - (long) (timestep.getAlpha() * timestep.getStepNanos());
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+
+    private void record(net.offbeatpioneer.retroengine.core.states.State state) {
+        Canvas canvas = snapshotBuffer.beginRecording(RetroEngine.W, RetroEngine.H, tick);
+        canvas.clipRect(0, 0, RetroEngine.W, RetroEngine.H);
+        int transition = transitions.beginIncoming(canvas, RetroEngine.getNanoTime());
+        manager.renderSuspendedStates(canvas, paint, RetroEngine.getTickCount());
+        state.render(canvas, paint, RetroEngine.getTickCount(), timestep.getAlpha());
+        if (transition != TransitionCompositor.NOT_RUNNING) {
+            transitions.endIncoming(canvas, transition);
+        }
+        snapshotBuffer.publish();
+    }
+}
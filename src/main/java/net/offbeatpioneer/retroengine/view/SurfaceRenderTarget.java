@@ -0,0 +1,39 @@
+package net.offbeatpioneer.retroengine.view;
+
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.SurfaceHolder;
+
+/**
+ * Render target of a {@link android.view.SurfaceView}
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class SurfaceRenderTarget implements RenderTarget {
+
+    private final SurfaceHolder surfaceHolder;
+
+    public SurfaceRenderTarget(SurfaceHolder surfaceHolder) {
+        this.surfaceHolder = surfaceHolder;
+    }
+
+    @Override
+    public boolean isValid() {
+        return surfaceHolder.getSurface().isValid();
+    }
+
+    @Override
+    public Canvas lockCanvas(Rect dirty) {
+        return surfaceHolder.lockCanvas(dirty);
+    }
+
+    @Override
+    public void unlockCanvasAndPost(Canvas canvas) {
+        surfaceHolder.unlockCanvasAndPost(canvas);
+    }
+
+    public SurfaceHolder getSurfaceHolder() {
+        return surfaceHolder;
+    }
+}
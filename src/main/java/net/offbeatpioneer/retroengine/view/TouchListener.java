@@ -6,7 +6,9 @@ import android.view.View;
 import android.view.View.OnKeyListener;
 import android.view.View.OnTouchListener;
 
+import net.offbeatpioneer.retroengine.core.RetroEngine;
 import net.offbeatpioneer.retroengine.core.StateManager;
+import net.offbeatpioneer.retroengine.core.replay.InputRecorder;
 
 /**
  * {@link TouchListener} nimmt die Eingaben entgegen, die als Touch-Event oder
@@ -27,12 +29,16 @@ public class TouchListener implements OnKeyListener, OnTouchListener {
 	}
 
 	public boolean onKey(View arg0, int arg1, KeyEvent e) {
+		InputRecorder recorder = RetroEngine.getInputRecorder();
+		if (recorder != null) recorder.recordKeyEvent(e);
 		currentState = manager.getActiveGameState();
 		currentState.onKeyEvent(arg0, arg1, e);
 		return false;
 	}
 
 	public boolean onTouch(View v, MotionEvent event) {
+		InputRecorder recorder = RetroEngine.getInputRecorder();
+		if (recorder != null) recorder.recordTouchEvent(event);
 		currentState = manager.getActiveGameState();
 		if(currentState == null) return false;
 		currentState.onTouchEvent(v, event);
@@ -0,0 +1,32 @@
+package net.offbeatpioneer.retroengine.view;
+
+/**
+ * Source of the vertical synchronisation signal of the display.
+ * <p>
+ * A {@link FramePacer} uses this interface to align the frames of the {@link RenderThread}
+ * to the refresh of the display. The default implementation is the {@link ChoreographerVsyncSource}.
+ * For tests or an offscreen rendering the {@link FakeVsyncSource} can be used.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public interface VsyncSource {
+
+    /**
+     * Start to listen for vsync signals
+     */
+    void start();
+
+    /**
+     * Block the calling thread until the next vsync signal arrives.
+     *
+     * @return time of the vsync signal in nanoseconds
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    long awaitNextVsync() throws InterruptedException;
+
+    /**
+     * Stop to listen for vsync signals. Threads that are waiting for a signal are released.
+     */
+    void stop();
+}
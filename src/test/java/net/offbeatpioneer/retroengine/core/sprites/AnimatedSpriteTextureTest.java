@@ -0,0 +1,46 @@
+package net.offbeatpioneer.retroengine.core.sprites;
+
+import android.graphics.Bitmap;
+import android.graphics.PointF;
+import android.graphics.Rect;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests of the source rectangle after the texture of a sprite is replaced
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class AnimatedSpriteTextureTest {
+
+    @Test
+    public void staticSpriteDrawsTheWholeNewTexture() {
+        AnimatedSprite sprite = new AnimatedSprite();
+        sprite.init(Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888), new PointF(0, 0));
+        sprite.setTexture(Bitmap.createBitmap(20, 30, Bitmap.Config.ARGB_8888));
+
+        assertEquals(new Rect(0, 0, 20, 30), sprite.getsRectangle());
+        assertFalse(sprite.hasFrameRect());
+    }
+
+    @Test
+    public void filmStripKeepsItsFrame() {
+        AnimatedSprite sprite = new AnimatedSprite();
+        Bitmap strip = Bitmap.createBitmap(40, 10, Bitmap.Config.ARGB_8888);
+        sprite.initAsAnimation(strip, 10, 10, 10, 4, new PointF(0, 0), true);
+        sprite.setTexture(strip);
+
+        assertEquals(new Rect(0, 0, 10, 10), sprite.getsRectangle());
+        assertTrue(sprite.hasFrameRect());
+    }
+}
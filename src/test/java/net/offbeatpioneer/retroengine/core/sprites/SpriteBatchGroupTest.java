@@ -0,0 +1,134 @@
+package net.offbeatpioneer.retroengine.core.sprites;
+
+import android.graphics.Bitmap;
+import android.graphics.RectF;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests of the handles and the slot compaction of the {@link SpriteBatchGroup}
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SpriteBatchGroupTest {
+    private static final int INDEX_MASK = (1 << 20) - 1;
+
+    private SpriteBatchGroup group;
+
+    @Before
+    public void setUp() {
+        group = new SpriteBatchGroup(Bitmap.createBitmap(8, 8, Bitmap.Config.ARGB_8888), 1, 16);
+    }
+
+    @Test
+    public void staleHandleIsDeadAfterRemoval() {
+        int handle = group.spawn(1, 2, 0, 0);
+        assertTrue(group.isAlive(handle));
+
+        group.kill(handle);
+        assertFalse(group.isAlive(handle));
+        group.removeInActive();
+
+        assertFalse(group.isAlive(handle));
+        assertEquals(0, group.getChildrenSize());
+        try {
+            group.getX(handle);
+            fail("A removed sprite must not be accessible");
+        } catch (IllegalArgumentException expected) {
+            // the handle is invalid
+        }
+        // killing a removed sprite again has no effect
+        group.kill(handle);
+    }
+
+    @Test
+    public void idIsReusedWithNewGeneration() {
+        int first = group.spawn(1, 2, 0, 0);
+        group.kill(first);
+        group.removeInActive();
+
+        int second = group.spawn(3, 4, 0, 0);
+        assertEquals(first & INDEX_MASK, second & INDEX_MASK);
+        assertNotEquals(first, second);
+        assertFalse(group.isAlive(first));
+        assertTrue(group.isAlive(second));
+        assertEquals(3f, group.getX(second), 0f);
+        try {
+            group.setPosition(first, 0, 0);
+            fail("The old handle must not change the new sprite");
+        } catch (IllegalArgumentException expected) {
+            // the generation doesn't match
+        }
+        assertEquals(4f, group.getY(second), 0f);
+    }
+
+    @Test
+    public void swapRemoveKeepsTheOtherHandles() {
+        int[] handles = new int[6];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = group.spawn(i * 10, i * 100, 0, 0);
+        }
+        // the last sprites are moved into the freed slots
+        group.kill(handles[0]);
+        group.kill(handles[2]);
+        group.kill(handles[5]);
+        group.removeInActive();
+
+        assertEquals(3, group.getChildrenSize());
+        int[] survivors = {handles[1], handles[3], handles[4]};
+        int[] originalIndex = {1, 3, 4};
+        for (int i = 0; i < survivors.length; i++) {
+            assertTrue(group.isAlive(survivors[i]));
+            assertEquals(originalIndex[i] * 10f, group.getX(survivors[i]), 0f);
+            assertEquals(originalIndex[i] * 100f, group.getY(survivors[i]), 0f);
+        }
+
+        group.setPosition(handles[4], -1, -2);
+        assertEquals(-1f, group.getX(handles[4]), 0f);
+        assertEquals(10f, group.getX(handles[1]), 0f);
+        assertEquals(30f, group.getX(handles[3]), 0f);
+    }
+
+    @Test
+    public void updateRemovesKilledSpritesAndKeepsTheOthers() {
+        int a = group.spawn(0, 0, 1, 0);
+        int b = group.spawn(0, 0, 2, 0);
+        int c = group.spawn(0, 0, 3, 0);
+        group.kill(a);
+        group.updateLogic();
+
+        assertEquals(2, group.getChildrenSize());
+        assertFalse(group.isAlive(a));
+        assertEquals(2f, group.getX(b), 0f);
+        assertEquals(3f, group.getX(c), 0f);
+    }
+
+    @Test
+    public void killBoundsAreCopied() {
+        RectF bounds = new RectF(0, 0, 100, 100);
+        group.setKillBounds(bounds);
+        int handle = group.spawn(50, 50, 0, 0);
+        bounds.set(200, 200, 300, 300);
+        group.updateLogic();
+
+        assertTrue(group.isAlive(handle));
+        assertEquals(new RectF(0, 0, 100, 100), group.getKillBounds());
+
+        group.setPosition(handle, 500, 500);
+        group.updateLogic();
+        assertFalse(group.isAlive(handle));
+    }
+}
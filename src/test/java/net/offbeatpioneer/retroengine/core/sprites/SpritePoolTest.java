@@ -0,0 +1,103 @@
+package net.offbeatpioneer.retroengine.core.sprites;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests that the sprite groups return removed sprites to their {@link SpritePool}
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class SpritePoolTest {
+
+    private SpritePool<AnimatedSprite> pool;
+
+    @Before
+    public void setUp() {
+        pool = new SpritePool<>(new SpritePool.SpriteFactory<AnimatedSprite>() {
+            @Override
+            public AnimatedSprite create() {
+                return new AnimatedSprite();
+            }
+        }, 16);
+    }
+
+    private AnimatedSprite obtainActive() {
+        AnimatedSprite sprite = pool.obtain();
+        sprite.setActive(true);
+        return sprite;
+    }
+
+    @Test
+    public void listGroupReturnsInactiveSprite() {
+        SpriteListGroup group = new SpriteListGroup();
+        AnimatedSprite sprite = obtainActive();
+        group.add(sprite);
+        sprite.setActive(false);
+        group.removeInActive();
+
+        assertEquals(0, group.getChildrenSize());
+        assertEquals(1, pool.getSize());
+        assertSame(sprite, pool.obtain());
+        assertEquals(1, pool.getHitCount());
+    }
+
+    @Test
+    public void quadtreeGroupReturnsSpriteRemovedInUpdate() {
+        SpriteQuadtreeGroup group = new SpriteQuadtreeGroup();
+        AnimatedSprite sprite = obtainActive();
+        group.add(sprite);
+        sprite.setActive(false);
+        group.updateLogic();
+
+        assertEquals(1, pool.getSize());
+        assertSame(sprite, pool.obtain());
+    }
+
+    @Test
+    public void quadtreeGroupReturnsInactiveSprite() {
+        SpriteQuadtreeGroup group = new SpriteQuadtreeGroup();
+        AnimatedSprite sprite = obtainActive();
+        group.add(sprite);
+        sprite.setActive(false);
+        group.removeInActive();
+
+        assertEquals(1, pool.getSize());
+    }
+
+    @Test
+    public void droppedListGroupReturnsItsChildren() {
+        SpriteListGroup root = new SpriteListGroup();
+        SpriteListGroup nested = new SpriteListGroup();
+        nested.add(obtainActive());
+        nested.add(obtainActive());
+        root.add(nested);
+        nested.setActive(false);
+        root.removeInActive();
+
+        assertEquals(0, root.getChildrenSize());
+        assertEquals(2, pool.getSize());
+    }
+
+    @Test
+    public void droppedQuadtreeGroupReturnsItsChildren() {
+        SpriteListGroup root = new SpriteListGroup();
+        SpriteQuadtreeGroup nested = new SpriteQuadtreeGroup();
+        nested.add(obtainActive());
+        nested.add(obtainActive());
+        root.add(nested);
+        nested.setActive(false);
+        root.removeInActive();
+
+        assertEquals(2, pool.getSize());
+    }
+}
@@ -0,0 +1,48 @@
+package net.offbeatpioneer.retroengine.core.texture;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Tests of the texture keys of the {@link TextureRegistry}
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+public class TextureRegistryKeyTest {
+
+    @Test
+    public void defaultOptionsAreTheSameAsNoOptions() {
+        TextureRegistry.Key withoutOptions = new TextureRegistry.Key(1, null);
+        TextureRegistry.Key defaultOptions = new TextureRegistry.Key(1, new BitmapFactory.Options());
+        assertEquals(withoutOptions, defaultOptions);
+        assertEquals(withoutOptions.hashCode(), defaultOptions.hashCode());
+    }
+
+    @Test
+    public void missingConfigIsArgb8888() {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = null;
+        assertEquals(new TextureRegistry.Key(1, null), new TextureRegistry.Key(1, options));
+        BitmapFactory.Options argb = new BitmapFactory.Options();
+        argb.inPreferredConfig = Bitmap.Config.ARGB_8888;
+        assertEquals(new TextureRegistry.Key(1, options), new TextureRegistry.Key(1, argb));
+    }
+
+    @Test
+    public void otherConfigIsAnotherTexture() {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inPreferredConfig = Bitmap.Config.RGB_565;
+        assertFalse(new TextureRegistry.Key(1, null).equals(new TextureRegistry.Key(1, options)));
+    }
+}
@@ -0,0 +1,104 @@
+package net.offbeatpioneer.retroengine.view;
+
+import net.offbeatpioneer.retroengine.core.time.ManualClock;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests of the {@link FramePacer} with a {@link FakeVsyncSource} and a {@link ManualClock}.
+ * The manual clock is advanced by the pacer and the vsync source, so the tests run without real time.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+public class FramePacerTest {
+
+    private static final long VSYNC_PERIOD = 1000000000L / 60;
+    private static final long MS = 1000000L;
+
+    private ManualClock clock;
+
+    @Before
+    public void setUp() {
+        clock = new ManualClock(0);
+    }
+
+    @Test
+    public void framesAreAlignedToVsync() {
+        FramePacer pacer = new FramePacer(new FakeVsyncSource(60, clock), 0);
+        pacer.start();
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i * VSYNC_PERIOD, pacer.awaitFrame());
+            assertEquals(i * VSYNC_PERIOD, clock.nanoTime());
+        }
+        pacer.stop();
+    }
+
+    @Test
+    public void missedVsyncsAreSkipped() {
+        FramePacer pacer = new FramePacer(new FakeVsyncSource(60, clock), 0);
+        pacer.start();
+        assertEquals(VSYNC_PERIOD, pacer.awaitFrame());
+        // the frame took two and a half periods
+        clock.advance(VSYNC_PERIOD * 5 / 2);
+        assertEquals(3 * VSYNC_PERIOD, pacer.awaitFrame());
+        assertEquals(4 * VSYNC_PERIOD, pacer.awaitFrame());
+        pacer.stop();
+    }
+
+    @Test
+    public void fpsCapSkipsVsyncs() {
+        FramePacer pacer = new FramePacer(new FakeVsyncSource(60, clock), 30);
+        pacer.start();
+        assertEquals(VSYNC_PERIOD, pacer.awaitFrame());
+        assertEquals(3 * VSYNC_PERIOD, pacer.awaitFrame());
+        assertEquals(5 * VSYNC_PERIOD, pacer.awaitFrame());
+        pacer.stop();
+    }
+
+    @Test
+    public void fpsCapAboveRefreshRateKeepsEveryVsync() {
+        FramePacer pacer = new FramePacer(new FakeVsyncSource(60, clock), 120);
+        pacer.start();
+        for (int i = 1; i <= 3; i++) {
+            assertEquals(i * VSYNC_PERIOD, pacer.awaitFrame());
+        }
+        pacer.stop();
+    }
+
+    @Test
+    public void fpsCapWithoutVsync() {
+        FramePacer pacer = new FramePacer(null, 50, clock);
+        pacer.start();
+        for (int i = 1; i <= 5; i++) {
+            assertEquals(i * 20 * MS, pacer.awaitFrame());
+        }
+        pacer.stop();
+    }
+
+    @Test
+    public void fpsCapDoesNotCatchUpAfterLongFrame() {
+        FramePacer pacer = new FramePacer(null, 50, clock);
+        pacer.start();
+        assertEquals(20 * MS, pacer.awaitFrame());
+        clock.advance(100 * MS);
+        assertEquals(120 * MS, pacer.awaitFrame());
+        assertEquals(140 * MS, pacer.awaitFrame());
+        pacer.stop();
+    }
+
+    @Test
+    public void manualVsyncTimestampsArePassedThrough() {
+        FakeVsyncSource vsync = new FakeVsyncSource();
+        FramePacer pacer = new FramePacer(vsync, 0, clock);
+        pacer.start();
+        vsync.pulse(12345L);
+        assertEquals(12345L, pacer.awaitFrame());
+        // the pacer doesn't read its own clock when a vsync source is set
+        assertEquals(0L, clock.nanoTime());
+        pacer.stop();
+    }
+}
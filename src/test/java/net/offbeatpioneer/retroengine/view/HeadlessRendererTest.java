@@ -0,0 +1,238 @@
+package net.offbeatpioneer.retroengine.view;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.View;
+
+import net.offbeatpioneer.retroengine.core.RetroEngine;
+import net.offbeatpioneer.retroengine.core.replay.InputLogReader;
+import net.offbeatpioneer.retroengine.core.replay.InputRecorder;
+import net.offbeatpioneer.retroengine.core.states.State;
+import net.offbeatpioneer.retroengine.core.time.EngineClock;
+import net.offbeatpioneer.retroengine.core.time.ManualClock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs and replays a small {@link State} with the {@link HeadlessRenderer} and checks the ticks and the
+ * rendered bitmap. The native graphics of Robolectric are needed to read the pixels of the bitmap.
+ *
+ * @author Dominik Grzelak
+ * @since 2026-10-18
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 28)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class HeadlessRendererTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 32;
+
+    private HeadlessRenderer renderer;
+    private EngineClock engineClock;
+
+    @Before
+    public void setUp() {
+        engineClock = RetroEngine.getClock();
+        renderer = new HeadlessRenderer(WIDTH, HEIGHT);
+    }
+
+    @After
+    public void tearDown() {
+        RetroEngine.setInputRecorder(null);
+        RetroEngine.setClock(engineClock);
+        renderer.getTarget().recycle();
+    }
+
+    @Test
+    public void runUpdatesAndRendersOncePerTick() {
+        MovingBlockState state = new MovingBlockState();
+        HeadlessRenderer.BenchmarkResult result = renderer.run(state, 10);
+
+        assertEquals(1, state.initCount);
+        assertEquals(10, result.getTicks());
+        assertEquals(10, state.updateCount);
+        assertEquals(10, state.renderCount);
+        assertEquals(10, renderer.getTarget().getFrameCount());
+    }
+
+    @Test
+    public void runAdvancesTheEngineClockByOneStepPerTick() {
+        MovingBlockState state = new MovingBlockState();
+        state.setTicksPerSecond(50);
+        renderer.run(state, 5);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), state.lastUpdateNanos);
+        assertSame(engineClock, RetroEngine.getClock());
+    }
+
+    @Test
+    public void runRendersTheLastTick() {
+        MovingBlockState state = new MovingBlockState();
+        renderer.run(state, 3);
+
+        Bitmap bitmap = renderer.getTarget().getBitmap();
+        // the block is drawn at x = 3 * 4 after three updates
+        assertEquals(Color.RED, bitmap.getPixel(13, 8));
+        assertEquals(Color.BLUE, bitmap.getPixel(4, 8));
+        assertEquals(Color.BLUE, bitmap.getPixel(40, 8));
+    }
+
+    @Test
+    public void dirtyRegionModeOnlyPostsDamagedFrames() {
+        renderer.getRenderThread().setDirtyRegionMode(true);
+        MovingBlockState state = new MovingBlockState();
+        state.reportDamage = false;
+        renderer.run(state, 5);
+
+        // only the first frame is drawn completely, afterwards the state reports no damage
+        assertEquals(5, state.updateCount);
+        assertEquals(1, renderer.getTarget().getFrameCount());
+
+        state.reportDamage = true;
+        renderer.run(state, 5);
+        assertEquals(6, renderer.getTarget().getFrameCount());
+    }
+
+    @Test
+    public void replayDispatchesRecordedEventsBeforeTheNextTick() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        RetroEngine.setClock(new ManualClock(1000));
+        InputRecorder recorder = new InputRecorder(bytes);
+        RetroEngine.setClock(engineClock);
+        recorder.recordTick(2000);
+        MotionEvent touch = MotionEvent.obtain(0, 0, MotionEvent.ACTION_DOWN, 40, 8, 0);
+        recorder.recordTouchEvent(touch);
+        touch.recycle();
+        recorder.recordTick(3000);
+        recorder.recordKeyEvent(new KeyEvent(KeyEvent.ACTION_DOWN, KeyEvent.KEYCODE_SPACE));
+        recorder.recordTick(4000);
+        recorder.close();
+
+        MovingBlockState state = new MovingBlockState();
+        HeadlessRenderer.BenchmarkResult result = renderer.replay(state, reader(bytes));
+
+        assertEquals(3, result.getTicks());
+        assertEquals(3, state.updateCount);
+        assertEquals(3, renderer.getTarget().getFrameCount());
+        assertEquals(4000, state.lastUpdateNanos);
+        assertEquals(1, state.touchAtUpdate);
+        assertEquals(2, state.keyAtUpdate);
+        assertEquals(KeyEvent.KEYCODE_SPACE, state.lastKeyCode);
+        assertSame(engineClock, RetroEngine.getClock());
+        // the touch moved the block to x = 40, it moved twice afterwards
+        Bitmap bitmap = renderer.getTarget().getBitmap();
+        assertEquals(Color.RED, bitmap.getPixel(49, 8));
+        assertEquals(Color.BLUE, bitmap.getPixel(13, 8));
+    }
+
+    @Test
+    public void replayReproducesTheRecordedRun() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        InputRecorder recorder = new InputRecorder(bytes);
+        RetroEngine.setInputRecorder(recorder);
+        MovingBlockState recorded = new MovingBlockState();
+        renderer.run(recorded, 7);
+        RetroEngine.setInputRecorder(null);
+        recorder.close();
+        assertEquals(7, recorder.getTickCount());
+
+        HeadlessRenderer replayRenderer = new HeadlessRenderer(WIDTH, HEIGHT);
+        try {
+            MovingBlockState replayed = new MovingBlockState();
+            HeadlessRenderer.BenchmarkResult result = replayRenderer.replay(replayed, reader(bytes));
+
+            assertEquals(7, result.getTicks());
+            assertEquals(recorded.updateCount, replayed.updateCount);
+            assertEquals(recorded.blockX, replayed.blockX);
+            assertTrue(renderer.getTarget().getBitmap().sameAs(replayRenderer.getTarget().getBitmap()));
+        } finally {
+            replayRenderer.getTarget().recycle();
+        }
+    }
+
+    private static InputLogReader reader(ByteArrayOutputStream bytes) throws IOException {
+        return new InputLogReader(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    /**
+     * Fills the surface blue and draws a red block which moves four pixels to the right per tick.
+     * A touch event moves the block to the x-coordinate of the event. Each update repaints the whole
+     * surface in the dirty-rectangle mode unless {@code reportDamage} is false.
+     */
+    static class MovingBlockState extends State {
+        static final int BLOCK_SIZE = 4;
+
+        int initCount = 0;
+        int updateCount = 0;
+        int renderCount = 0;
+        long lastUpdateNanos = 0;
+        int blockX = 0;
+        int touchAtUpdate = -1;
+        int keyAtUpdate = -1;
+        int lastKeyCode = KeyEvent.KEYCODE_UNKNOWN;
+        boolean reportDamage = true;
+
+        @Override
+        public void init() {
+            initCount++;
+            updateCount = 0;
+            blockX = 0;
+        }
+
+        @Override
+        public void updateLogic() {
+            updateCount++;
+            lastUpdateNanos = RetroEngine.getNanoTime();
+            blockX += BLOCK_SIZE;
+            if (reportDamage) {
+                invalidate();
+            }
+        }
+
+        @Override
+        public void render(Canvas canvas, Paint paint, long currentTime) {
+            renderCount++;
+            canvas.drawColor(Color.BLUE);
+            paint.setColor(Color.RED);
+            canvas.drawRect(blockX, 0, blockX + BLOCK_SIZE, HEIGHT, paint);
+        }
+
+        @Override
+        public boolean onKeyEvent(View v, int keyCode, KeyEvent keyEvent) {
+            keyAtUpdate = updateCount;
+            lastKeyCode = keyCode;
+            return true;
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+
+        @Override
+        public boolean onTouchEvent(View v, MotionEvent event) {
+            touchAtUpdate = updateCount;
+            blockX = (int) event.getX();
+            return true;
+        }
+    }
+}